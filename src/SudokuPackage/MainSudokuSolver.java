@@ -23,6 +23,29 @@ package SudokuPackage;
           * Rotate Clockwise --------> d
           * Pause/Resume ------------> p (or the GUI button)
           * Play/Restart ------------> GUI button
+
+  * Store:
+      > The GUI keeps the solutions it finds in memory only, unless it's given a directory in which to store them
+        between runs (see SudokuSolutionStore); the store is locked while the GUI is open, so it can't be shared with a
+        batch that's running at the same time:
+          * java SudokuPackage.MainSudokuSolver [-store <directory>]
+
+  * Batch Mode:
+      > The program can also solve a file of sudokus (one per line) headlessly, without opening the GUI (see
+        SudokuCorpus for the format of the file):
+          * java SudokuPackage.MainSudokuSolver -batch <input> <output> [width_box height_box [threads [store [canonical]]]]
+      > The box dimensions default to 3x3, and the no. of threads defaults to the no. of available processors. An input
+        file whose name ends in '.gz' is decompressed as it's read. If a store directory is given (other than '-'), the
+        solutions are kept in (and looked up from) a persistent store in that directory (see SudokuSolutionStore), so
+        that no puzzle is solved in more than one run. If canonical is true, the solutions are shared by equivalent
+        puzzles (see below), at the cost of canonicalising every puzzle (which takes far longer than solving a typical
+        9x9 puzzle; see SudokuBatch).
+      > Such a file can also be converted to a compact binary file (see SudokuPackedFormat), with or without a checksum
+        per record, which batch mode reads directly (i.e. without decoding text):
+          * java SudokuPackage.MainSudokuSolver -pack <input> <output> [width_box height_box [checksum]]
+      > Or copied without the sudokus that are equivalent to an earlier one (i.e. the same up to relabelling, row/column
+        permutations and transposition; see SudokuCanonicaliser):
+          * java SudokuPackage.MainSudokuSolver -dedupe <input> <output> [width_box height_box]
         
  * Credits: 
      > https://www.geeksforgeeks.org/sudoku-backtracking-7/
@@ -47,7 +70,7 @@ package SudokuPackage;
  
  * Class Composition:
      (a). Publics (1)
-     (b). Auxiliaries (1)
+     (b). Auxiliaries (4)
  
 */
 public class MainSudokuSolver 
@@ -65,6 +88,32 @@ public class MainSudokuSolver
     */
     public static void main(String[] args) 
     {
+        if (args.length > 0 && args[0].equals("-batch"))
+        {
+            RunBatch(args);
+            return;
+        }
+        
+        if (args.length > 0 && args[0].equals("-pack"))
+        {
+            RunPack(args);
+            return;
+        }
+        
+        if (args.length > 0 && args[0].equals("-dedupe"))
+        {
+            RunDedupe(args);
+            return;
+        }
+
+        if (args.length > 0 && (!args[0].equals("-store") || args.length != 2))
+        {
+            System.out.println("Usage: [-store <directory>] | -batch ... | -pack ... | -dedupe ...");
+            return;
+        }
+        
+        java.nio.file.Path l_directory_store = args.length > 0 ? java.nio.file.Paths.get(args[1]) : null;
+        
         // (a). Display a welcome message in the console.
         System.out.println("Welcome to SudokuSolver. Use this program to solve a sudoku, either manually or via the solving algorithm.");
         
@@ -74,7 +123,7 @@ public class MainSudokuSolver
             {
                 public void run() 
                 {
-                    CreateAndShowGUI();
+                    CreateAndShowGUI(l_directory_store);
                 }
             }
         );
@@ -82,14 +131,151 @@ public class MainSudokuSolver
     }
     
     
-// (b). Auxiliaries (1) ================================================================================================
+// (b). Auxiliaries (4) ================================================================================================
     
     /* Auxiliary of main
      * main uses this method to create the frame.
+     
+     * Parameters:
+         > a_directory_store: the directory in which the solutions are stored between runs (null for none).
     */
-    private static void CreateAndShowGUI()
+    private static void CreateAndShowGUI(java.nio.file.Path a_directory_store)
     {
-        (new SudokuFrame("Sudoku Solver", "sudokus/sudoku_33_1.txt", 3, 3, 50)).setVisible(true);
+        (new SudokuFrame("Sudoku Solver", "sudokus/sudoku_33_1.txt", 3, 3, 50, a_directory_store)).setVisible(true);
+    }
+    
+    /* Auxiliary of main
+     * main uses this method to run the program in batch mode.
+     
+     * Parameters:
+         > args: the program's arguments: -batch <input> <output> [width_box height_box [threads [store [canonical]]]].
+    */
+    private static void RunBatch(String[] args)
+    {
+        if (args.length != 3 && (args.length < 5 || args.length > 8))
+        {
+            System.out.println("Usage: -batch <input> <output> [width_box height_box [threads [store [canonical]]]]");
+            return;
+        }
+        
+        SudokuSolutionStore l_store = null;
+        
+        try
+        {
+            int l_width_box = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+            int l_height_box = args.length > 3 ? Integer.parseInt(args[4]) : 3;
+            int l_count_threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+            
+            // Puzzles that recur within the batch are only solved once (up to 65536 distinct solutions are cached).
+            SudokuSolutionCache l_cache = new SudokuSolutionCache(1 << 16);
+            
+            boolean l_canonical = args.length > 7 && Boolean.parseBoolean(args[7]);
+            
+            if (args.length > 6 && !args[6].equals("-"))
+            { l_store = SudokuSolutionStore.Open(java.nio.file.Paths.get(args[6]), l_width_box, l_height_box); }
+            
+            SudokuBatch l_batch = new SudokuBatch(l_width_box, l_height_box, l_count_threads, l_cache, l_store, 
+                                                  l_canonical);
+            
+            System.out.println(l_batch.Run(java.nio.file.Paths.get(args[1]), java.nio.file.Paths.get(args[2])));
+            System.out.println(l_cache);
+            
+            if (l_store != null)
+            { System.out.println(l_store); }
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println("Invalid arguments: " + e.getMessage());
+        }
+        catch (java.io.IOException e)
+        {
+            System.out.println("The batch failed: " + e.getMessage());
+        }
+        finally
+        {
+            try
+            {
+                if (l_store != null)
+                { l_store.close(); }
+            }
+            catch (java.io.IOException e)
+            {
+                System.out.println("The store couldn't be closed: " + e.getMessage());
+            }
+            
+        }
+        
+    }
+    
+    /* Auxiliary of main
+     * main uses this method to convert a file of sudokus to the packed (binary) format.
+     
+     * Parameters:
+         > args: the program's arguments: -pack <input> <output> [width_box height_box [checksum]].
+    */
+    private static void RunPack(String[] args)
+    {
+        if (args.length != 3 && args.length != 5 && args.length != 6)
+        {
+            System.out.println("Usage: -pack <input> <output> [width_box height_box [checksum]]");
+            return;
+        }
+        
+        try
+        {
+            int l_width_box = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+            int l_height_box = args.length > 3 ? Integer.parseInt(args[4]) : 3;
+            boolean l_checksum = args.length > 5 && Boolean.parseBoolean(args[5]);
+            
+            int l_count = SudokuPackedFormat.Pack(java.nio.file.Paths.get(args[1]), java.nio.file.Paths.get(args[2]), 
+                                                  l_width_box, l_height_box, l_checksum);
+            
+            System.out.println(l_count + " sudokus were packed.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println("Invalid arguments: " + e.getMessage());
+        }
+        catch (java.io.IOException e)
+        {
+            System.out.println("The conversion failed: " + e.getMessage());
+        }
+        
+    }
+    
+    /* Auxiliary of main
+     * main uses this method to remove the equivalent sudokus from a file of sudokus.
+     
+     * Parameters:
+         > args: the program's arguments: -dedupe <input> <output> [width_box height_box].
+    */
+    private static void RunDedupe(String[] args)
+    {
+        if (args.length != 3 && args.length != 5)
+        {
+            System.out.println("Usage: -dedupe <input> <output> [width_box height_box]");
+            return;
+        }
+        
+        try
+        {
+            int l_width_box = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+            int l_height_box = args.length > 3 ? Integer.parseInt(args[4]) : 3;
+            
+            int l_count = SudokuCanonicaliser.Dedupe(java.nio.file.Paths.get(args[1]), java.nio.file.Paths.get(args[2]), 
+                                                     l_width_box, l_height_box);
+            
+            System.out.println(l_count + " distinct sudokus were written.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println("Invalid arguments: " + e.getMessage());
+        }
+        catch (java.io.IOException e)
+        {
+            System.out.println("The deduplication failed: " + e.getMessage());
+        }
+        
     }
     
     
@@ -0,0 +1,940 @@
+
+package SudokuPackage;
+
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+
+/* Sudoku Batch Solver
+ * An instance of this class solves a file of sudokus (one per line) headlessly, and writes their solutions (one per
+   line, in the same order) to another file.
+ * The batch is a pipeline of three stages, each of which runs on its own thread(s), so that reading, solving and
+   writing overlap:
+     > Read: reads the input file (see SudokuCorpus for the format of a line) and decodes its puzzles into tasks of
+       S_BYTES_PER_TASK bytes of input each. A plain file is memory-mapped by a SudokuCorpus; a file whose name ends
+       in '.gz' is decompressed (via java.util.zip) as it's read (a line longer than S_BYTES_PER_LINE_MAX is
+       malformed, so that a file without line breaks can't exhaust the heap); and a packed file (see
+       SudokuPackedFormat) is read record by record, without any parsing.
+     > Solve: f_count_threads worker threads, each with its own SudokuSolver, solve the tasks' puzzles.
+     > Write: writes the tasks' solutions to the output file (buffered), in input order.
+ * The stages are connected by bounded queues of S_TASKS_PER_THREAD tasks per worker: when a stage falls behind (e.g.
+   a slow disk, or a pathological puzzle), the stages before it block until it catches up, so memory use doesn't
+   depend on the size of the file. Every task is queued for both the Solve and Write stages when it's read, and the
+   Write stage waits for each task in turn to be solved.
+ * Each stage's queue depth and throughput can be monitored while the batch runs (see GetStages), and are summarised
+   in the Report that's returned once the batch is done.
+ * If the batch has a SudokuSolutionCache, each puzzle's solution is looked up in it before the puzzle is solved, and
+   the solutions that are found are added to it (so that puzzles that recur, within or across batches, are solved
+   once). Likewise, if the batch has a SudokuSolutionStore, a puzzle that isn't cached is looked up in the store (and
+   its solution is stored once it's found), so that puzzles are solved once across runs of the program too.
+ * If the batch canonicalises its puzzles (see SudokuCanonicaliser), each puzzle is looked up (and its solution is
+   kept) under the hash of its canonical form, so that puzzles that are merely equivalent (e.g. relabelled or
+   transposed) share one solution, which is mapped back to each of them (so a puzzle with several solutions may get
+   a different one of them than its own search would find). Canonicalisation costs far more than solving (about
+   250 microseconds against 10-15 for a 9x9 puzzle, and milliseconds for a 12x12 one), so a canonical batch is
+   several times slower even when every lookup hits; it only pays off when the puzzles are hard and mostly
+   equivalent to ones already solved.
+ * A line that is malformed or has no solution yields an empty line of output (so that line i of the output always
+   corresponds to puzzle i of the input).
+ * If the Read stage or a task fails (with any Throwable, e.g. an OutOfMemoryError), the queues are still ended and
+   the task still released, so that Run throws an IOException (whose cause is the failure) rather than blocking.
+
+ * Class Composition:
+     (a). Fields (9)
+         (i). Static Fields (4)
+     (b). Constructors (4)
+     (c). Publics (2)
+     (d). Auxiliaries (6)
+     (e). Nested Classes (3)
+         (i). Static Classes (3)
+*/
+public class SudokuBatch
+{
+
+// (a). Fields (9) =====================================================================================================
+
+    /*
+     * The width and height of each box of every sudoku in the batch (no. of cells).
+    */
+    private final int f_width_box;
+    private final int f_height_box;
+
+    /*
+     * The no. of cells of each sudoku (n*n).
+    */
+    private final int f_count_cells;
+
+    /*
+     * The no. of worker threads.
+    */
+    private final int f_count_threads;
+
+    /*
+     * The cache of solutions (null if the batch has no cache).
+    */
+    private final SudokuSolutionCache f_cache;
+
+    /*
+     * The persistent store of solutions (null if the batch has no store).
+    */
+    private final SudokuSolutionStore f_store;
+
+    /*
+     * The canonicaliser under whose keys the solutions are cached and stored (null if the puzzles' own keys are used).
+    */
+    private final SudokuCanonicaliser f_canonicaliser;
+
+    /*
+     * The stages of the current (or last) batch: Read, Solve and Write.
+    */
+    private volatile Stage f_stages[];
+
+    /*
+     * The error (if any) that stopped the Read stage of the current batch.
+    */
+    private volatile IOException f_error_read;
+
+
+// (a)(i). Static Fields (4) -------------------------------------------------------------------------------------------
+
+    // The (minimum) no. of bytes of the input file that are decoded into each task.
+    private static final int S_BYTES_PER_TASK = 1 << 16;
+
+    // The maximum length of a line of a compressed input file (no. of bytes); a longer line is malformed.
+    private static final int S_BYTES_PER_LINE_MAX = 1 << 20;
+
+    // The capacity of each queue (no. of tasks) per worker thread.
+    private static final int S_TASKS_PER_THREAD = 4;
+
+    // The task that marks the end of a queue.
+    private static final Task S_TASK_END = new Task(0);
+
+
+
+// (b). Constructors (4) ===============================================================================================
+
+    /*
+     * Constructs a batch solver that has no cache.
+
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_count_threads: the no. of worker threads.
+    */
+    public SudokuBatch(int a_width_box, int a_height_box, int a_count_threads)
+    {
+        this(a_width_box, a_height_box, a_count_threads, null);
+    }
+
+    /*
+     * Constructs a batch solver that has no store.
+
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_count_threads: the no. of worker threads.
+         > a_cache: the cache of solutions (null for none); it may be shared with other batches.
+    */
+    public SudokuBatch(int a_width_box, int a_height_box, int a_count_threads, SudokuSolutionCache a_cache)
+    {
+        this(a_width_box, a_height_box, a_count_threads, a_cache, null);
+    }
+
+    /*
+     * Constructs a batch solver that keys each puzzle by its own clues.
+
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_count_threads: the no. of worker threads.
+         > a_cache: the cache of solutions (null for none); it may be shared with other batches.
+         > a_store: the persistent store of solutions (null for none); its geometry must be that of the batch.
+    */
+    public SudokuBatch(int a_width_box, int a_height_box, int a_count_threads, SudokuSolutionCache a_cache,
+                       SudokuSolutionStore a_store)
+    {
+        this(a_width_box, a_height_box, a_count_threads, a_cache, a_store, false);
+    }
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_count_threads: the no. of worker threads.
+         > a_cache: the cache of solutions (null for none); it may be shared with other batches.
+         > a_store: the persistent store of solutions (null for none); its geometry must be that of the batch.
+         > a_canonical: whether each puzzle is keyed by its canonical form, so that equivalent puzzles share a solution
+                        (the geometry must be supported by SudokuCanonicaliser); this only matters with a cache or a
+                        store.
+    */
+    public SudokuBatch(int a_width_box, int a_height_box, int a_count_threads, SudokuSolutionCache a_cache,
+                       SudokuSolutionStore a_store, boolean a_canonical)
+    {
+        if (a_width_box < 1 || a_height_box < 1 || a_width_box * a_height_box > SudokuCorpus.S_MAX_VALUE)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        if (a_count_threads < 1)
+        { throw new IllegalArgumentException("At least one thread is required."); }
+
+        if (a_store != null && (a_store.GetWidthBox() != a_width_box || a_store.GetHeightBox() != a_height_box))
+        { throw new IllegalArgumentException("The store's geometry doesn't match that of the batch."); }
+
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_count_cells = a_width_box * a_height_box * a_width_box * a_height_box;
+        f_count_threads = a_count_threads;
+        f_cache = a_cache;
+        f_store = a_store;
+        f_canonicaliser = a_canonical && (a_cache != null || a_store != null) ? 
+                          new SudokuCanonicaliser(a_width_box, a_height_box) : null;
+
+        f_stages = new Stage[0];
+    }
+
+
+
+// (c). Publics (2) ====================================================================================================
+
+    /*
+     * This method solves every sudoku in the input file and writes the solutions to the output file (which is created
+       or overwritten). The Write stage runs on the calling thread.
+
+     * Parameters:
+         > a_input: the file that contains the sudokus (one per line); it's decompressed if its name ends in '.gz', 
+                    and read as records if it's packed (see SudokuPackedFormat).
+         > a_output: the file to which the solutions are written (one per line, in the same order).
+
+     * Return Value:
+         > The statistics of the batch.
+    */
+    public Report Run(Path a_input, Path a_output)
+        throws IOException
+    {
+        int l_capacity = f_count_threads * S_TASKS_PER_THREAD;
+
+        BlockingQueue<Task> l_queue_solve = new ArrayBlockingQueue<Task>(l_capacity);
+        BlockingQueue<Task> l_queue_write = new ArrayBlockingQueue<Task>(l_capacity);
+
+        Stage l_stage_read = new Stage("Read", null);
+        Stage l_stage_solve = new Stage("Solve", l_queue_solve);
+        Stage l_stage_write = new Stage("Write", l_queue_write);
+
+        f_stages = new Stage[] { l_stage_read, l_stage_solve, l_stage_write };
+        f_error_read = null;
+
+        Thread[] l_threads = new Thread[f_count_threads + 1];
+
+        l_threads[0] = new Thread(() -> Read(a_input, l_stage_read, l_queue_solve, l_queue_write), "SudokuBatch-Read");
+
+        for (int i = 1; i < l_threads.length; ++i)
+        { l_threads[i] = new Thread(() -> Solve(l_stage_solve, l_queue_solve), "SudokuBatch-Solve-" + i); }
+
+        long l_time_start = System.nanoTime();
+
+        for (Thread thread : l_threads)
+        {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long[] l_latencies;
+
+        try
+        {
+            l_latencies = Write(a_output, l_stage_write, l_queue_write);
+        }
+        finally
+        {
+            // Stop the other stages if the Write stage failed (they've already finished otherwise).
+            for (Thread thread : l_threads)
+            { thread.interrupt(); }
+        }
+
+        if (f_error_read != null)
+        { throw f_error_read; }
+
+        int l_count_solved = (int)l_stage_solve.f_count_solved.sum();
+
+        return new Report(l_latencies.length, l_count_solved, System.nanoTime() - l_time_start, l_latencies, f_stages);
+    }
+
+    /*
+     * This method returns the stages of the current (or last) batch (Read, Solve and Write), which can be monitored
+       while the batch runs.
+    */
+    public Stage[] GetStages()
+    {
+        return f_stages.clone();
+    }
+
+
+
+// (d). Auxiliaries (6) ================================================================================================
+
+    /* Auxiliary of Run
+     * The Read stage: decodes the input file into tasks, and queues each for both the Solve and Write stages; once the
+       file has been read (or the stage fails), the end of each queue is marked.
+    */
+    private void Read(Path a_input, Stage a_stage, BlockingQueue<Task> a_queue_solve, BlockingQueue<Task> a_queue_write)
+    {
+        boolean l_interrupted = false;
+
+        try
+        {
+            if (a_input.getFileName().toString().endsWith(".gz"))
+            {
+                try (InputStream l_stream = new GZIPInputStream(Files.newInputStream(a_input), S_BYTES_PER_TASK))
+                {
+                    byte[] l_buffer = new byte[S_BYTES_PER_TASK];
+                    int l_length = 0;
+
+                    // A flag that, when true, indicates that the rest of an over-long line is being skipped.
+                    boolean l_skipping = false;
+
+                    // The time includes the decompression (i.e. the read), which is most of the stage's work.
+                    long l_time_start = System.nanoTime();
+
+                    for (int l_read; (l_read = l_stream.read(l_buffer, l_length, l_buffer.length - l_length)) >= 0; )
+                    {
+                        l_length += l_read;
+
+                        if (l_skipping)
+                        {
+                            int l_start = 0;
+
+                            while (l_start < l_length && l_buffer[l_start] != '\n')
+                            { ++l_start; }
+
+                            if (l_start == l_length)
+                            {
+                                // The buffer is still within the line.
+                                l_length = 0;
+                                continue;
+                            }
+
+                            System.arraycopy(l_buffer, l_start + 1, l_buffer, 0, l_length - l_start - 1);
+                            l_length -= l_start + 1;
+
+                            l_skipping = false;
+                        }
+
+                        if (l_length < l_buffer.length)
+                        { continue; }
+
+                        // Decode the buffer's complete lines, and keep the partial line at its end for the next read.
+                        int l_end = l_length;
+
+                        while (l_end > 0 && l_buffer[l_end - 1] != '\n')
+                        { --l_end; }
+
+                        if (l_end == 0 && l_buffer.length < S_BYTES_PER_LINE_MAX)
+                        {
+                            // A line is longer than the buffer.
+                            l_buffer = Arrays.copyOf(l_buffer, Math.min(2 * l_buffer.length, S_BYTES_PER_LINE_MAX));
+                            continue;
+                        }
+
+                        if (l_end == 0)
+                        {
+                            // A line is too long to be a sudoku: it's malformed (as SudokuCorpus would decode it), and
+                            // the rest of it is skipped, so that the buffer doesn't grow without bound.
+                            Task l_task = new Task(f_count_cells);
+                            l_task.Add(new int[f_count_cells], false);
+
+                            Submit(l_task, a_stage, l_time_start, a_queue_solve, a_queue_write);
+
+                            l_length = 0;
+                            l_skipping = true;
+
+                            l_time_start = System.nanoTime();
+                            continue;
+                        }
+
+                        Submit(Decode(ByteBuffer.wrap(l_buffer, 0, l_end)), a_stage, l_time_start, a_queue_solve,
+                               a_queue_write);
+
+                        System.arraycopy(l_buffer, l_end, l_buffer, 0, l_length - l_end);
+                        l_length -= l_end;
+
+                        l_time_start = System.nanoTime();
+                    }
+
+                    if (l_length > 0)
+                    {
+                        Submit(Decode(ByteBuffer.wrap(l_buffer, 0, l_length)), a_stage, l_time_start,
+                               a_queue_solve, a_queue_write);
+                    }
+
+                }
+
+            }
+            else if (SudokuPackedFormat.IsPacked(a_input))
+            {
+                ReadPacked(a_input, a_stage, a_queue_solve, a_queue_write);
+            }
+            else
+            {
+                for (ByteBuffer chunk : new SudokuCorpus(a_input).Split(S_BYTES_PER_TASK))
+                {
+                    // The time is taken before the chunk is decoded (which is when its pages are read).
+                    long l_time_start = System.nanoTime();
+
+                    Submit(Decode(chunk), a_stage, l_time_start, a_queue_solve, a_queue_write);
+                }
+            }
+
+        }
+        catch (IOException e)
+        {
+            f_error_read = e;
+        }
+        catch (InterruptedException e)
+        {
+            // The Write stage failed (so nothing waits for the end of the queues).
+            l_interrupted = true;
+        }
+        catch (Throwable e)
+        {
+            f_error_read = new IOException("The input couldn't be read: " + e, e);
+        }
+        finally
+        {
+            try
+            {
+                if (!l_interrupted)
+                {
+                    a_queue_write.put(S_TASK_END);
+
+                    for (int i = 0; i < f_count_threads; ++i)
+                    { a_queue_solve.put(S_TASK_END); }
+                }
+
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+
+        }
+
+    }
+
+    /* Auxiliary of Read
+     * Reads a packed file (see SudokuPackedFormat) into tasks of (about) S_BYTES_PER_TASK bytes of records each, and
+       submits them. A record that isn't intact (see SudokuPackedFormat.Read) is treated as a malformed line, and a 
+       partial record at the end of the file is ignored.
+    */
+    private void ReadPacked(Path a_input, Stage a_stage, BlockingQueue<Task> a_queue_solve,
+                            BlockingQueue<Task> a_queue_write)
+        throws IOException, InterruptedException
+    {
+        try (FileChannel l_channel = FileChannel.open(a_input, StandardOpenOption.READ))
+        {
+            ByteBuffer l_header = ByteBuffer.allocate(SudokuPackedFormat.S_SIZE_HEADER);
+
+            while (l_header.hasRemaining() && l_channel.read(l_header) >= 0)
+            { }
+
+            l_header.flip();
+
+            SudokuPackedFormat l_format;
+
+            try
+            {
+                l_format = SudokuPackedFormat.ReadHeader(l_header);
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException("The packed file's header is invalid: " + e.getMessage(), e);
+            }
+
+            if (l_format.GetWidthBox() != f_width_box || l_format.GetHeightBox() != f_height_box)
+            { throw new IOException("The packed file's geometry doesn't match that of the batch."); }
+
+            int l_stride = l_format.GetStride();
+
+            ByteBuffer l_buffer = ByteBuffer.allocate(Math.max(1, S_BYTES_PER_TASK / l_stride) * l_stride);
+
+            int[] l_grid = new int[f_count_cells];
+
+            boolean l_end = false;
+
+            while (!l_end)
+            {
+                long l_time_start = System.nanoTime();
+
+                l_buffer.clear();
+
+                while (l_buffer.hasRemaining() && !l_end)
+                { l_end = l_channel.read(l_buffer) < 0; }
+
+                l_buffer.flip();
+
+                Task l_task = new Task(f_count_cells);
+
+                while (l_buffer.remaining() >= l_stride)
+                { l_task.Add(l_grid, l_format.Read(l_buffer, l_grid)); }
+
+                if (l_task.f_count > 0)
+                { Submit(l_task, a_stage, l_time_start, a_queue_solve, a_queue_write); }
+            }
+
+        }
+
+    }
+
+    /* Auxiliary of Read
+     * Decodes every line of the given chunk into a new task.
+    */
+    private Task Decode(ByteBuffer a_chunk)
+    {
+        Task l_task = new Task(f_count_cells);
+
+        int[] l_grid = new int[f_count_cells];
+
+        SudokuCorpus.DecodeStatus l_status;
+
+        while ((l_status = SudokuCorpus.Decode(a_chunk, l_grid, f_width_box * f_height_box)) !=
+               SudokuCorpus.DecodeStatus.End)
+        { l_task.Add(l_grid, l_status == SudokuCorpus.DecodeStatus.Decoded); }
+
+        return l_task;
+    }
+
+    /* Auxiliary of Read
+     * Queues the given task for the Solve and Write stages (blocking while either queue is full), and records the time
+       the Read stage spent on it.
+    */
+    private static void Submit(Task a_task, Stage a_stage, long a_time_start, BlockingQueue<Task> a_queue_solve,
+                               BlockingQueue<Task> a_queue_write)
+        throws InterruptedException
+    {
+        a_stage.Record(a_task.f_count, System.nanoTime() - a_time_start);
+
+        // The Write stage must know of the task before it can be solved (so that the order is preserved).
+        a_queue_write.put(a_task);
+        a_queue_solve.put(a_task);
+    }
+
+    /* Auxiliary of Run
+     * The Solve stage (one worker thread): solves tasks until the end of the queue is reached.
+    */
+    private void Solve(Stage a_stage, BlockingQueue<Task> a_queue_solve)
+    {
+        SudokuSolver l_solver = new SudokuSolver(f_width_box, f_height_box);
+
+        int[] l_grid = new int[f_count_cells];
+
+        try
+        {
+            for (Task l_task = a_queue_solve.take(); l_task != S_TASK_END; l_task = a_queue_solve.take())
+            {
+                long l_time_start = System.nanoTime();
+
+                try
+                {
+                    l_task.Solve(l_solver, l_grid, f_cache, f_store, f_canonicaliser);
+                    a_stage.f_count_solved.add(l_task.f_count_solved);
+                }
+                catch (Throwable e)
+                {
+                    l_task.f_error = e;
+                }
+                finally
+                {
+                    // The Write stage waits for every task, whether or not it was solved.
+                    a_stage.Record(l_task.f_count, System.nanoTime() - l_time_start);
+
+                    l_task.f_done.countDown();
+                }
+
+            }
+
+        }
+        catch (InterruptedException e)
+        {
+            // The Write stage failed.
+            return;
+        }
+
+    }
+
+    /* Auxiliary of Run
+     * The Write stage: writes the output of each task, in input order, once it has been solved.
+
+     * Return Value:
+         > The latency of every puzzle (ns), in input order.
+    */
+    private long[] Write(Path a_output, Stage a_stage, BlockingQueue<Task> a_queue_write)
+        throws IOException
+    {
+        long[] l_latencies = new long[1024];
+        int l_count = 0;
+
+        try (OutputStream l_output = new BufferedOutputStream(Files.newOutputStream(a_output), S_BYTES_PER_TASK))
+        {
+            for (Task l_task = a_queue_write.take(); l_task != S_TASK_END; l_task = a_queue_write.take())
+            {
+                l_task.f_done.await();
+
+                if (l_task.f_error != null)
+                { throw new IOException("A task couldn't be solved: " + l_task.f_error.getMessage(), l_task.f_error); }
+
+                long l_time_start = System.nanoTime();
+
+                l_output.write(l_task.f_output, 0, l_task.f_length_output);
+
+                if (l_count + l_task.f_count > l_latencies.length)
+                { l_latencies = Arrays.copyOf(l_latencies, Math.max(2 * l_latencies.length, l_count + l_task.f_count)); }
+
+                System.arraycopy(l_task.f_latencies, 0, l_latencies, l_count, l_task.f_count);
+                l_count += l_task.f_count;
+
+                a_stage.Record(l_task.f_count, System.nanoTime() - l_time_start);
+            }
+
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("The batch was interrupted.", e);
+        }
+
+        return Arrays.copyOf(l_latencies, l_count);
+    }
+
+
+
+// (e). Nested Classes (3) =============================================================================================
+
+
+// (e)(i). Static Classes (3) ------------------------------------------------------------------------------------------
+
+    /* Task
+     * An instance of this class is a group of consecutive puzzles that are decoded, solved and written together.
+    */
+    private static final class Task
+    {
+        // The puzzles (one grid after another); only the first f_count grids are meaningful.
+        private int f_grids[];
+
+        // A flag for each puzzle that, when true, indicates that its line was well-formed.
+        private boolean f_decoded[];
+
+        // The no. of puzzles in the task.
+        private int f_count;
+
+        // The solutions (lines) of the puzzles; only the first f_length_output elements are meaningful.
+        private byte f_output[];
+        private int f_length_output;
+
+        // The time taken to solve each puzzle (ns).
+        private long f_latencies[];
+
+        // The no. of puzzles that were solved.
+        private int f_count_solved;
+
+        // The error (if any) that occurred while the task was being solved.
+        private Throwable f_error;
+
+        // The latch that is released once the task has been solved.
+        private final CountDownLatch f_done = new CountDownLatch(1);
+
+        public Task(int a_count_cells)
+        {
+            f_grids = new int[a_count_cells * 64];
+            f_decoded = new boolean[64];
+        }
+
+        /*
+         * Appends a puzzle to the task.
+        */
+        public void Add(int[] a_grid, boolean a_decoded)
+        {
+            if (f_count == f_decoded.length)
+            {
+                f_grids = Arrays.copyOf(f_grids, 2 * f_grids.length);
+                f_decoded = Arrays.copyOf(f_decoded, 2 * f_decoded.length);
+            }
+
+            System.arraycopy(a_grid, 0, f_grids, f_count * a_grid.length, a_grid.length);
+            f_decoded[f_count++] = a_decoded;
+        }
+
+        /*
+         * Solves the task's puzzles with the given solver (unless their solutions are cached or stored), and records
+           their solutions and latencies.
+
+         * Parameters:
+             > a_solver: the solver.
+             > a_grid: a grid in which each puzzle is solved (length n*n).
+             > a_cache: the cache of solutions (null for none).
+             > a_store: the persistent store of solutions (null for none).
+             > a_canonicaliser: the canonicaliser under whose keys the solutions are cached and stored (null to key
+                                each puzzle by its own clues).
+        */
+        public void Solve(SudokuSolver a_solver, int[] a_grid, SudokuSolutionCache a_cache, SudokuSolutionStore a_store,
+                          SudokuCanonicaliser a_canonicaliser)
+            throws IOException
+        {
+            f_output = new byte[f_count * (a_grid.length + 1)];
+            f_latencies = new long[f_count];
+
+            for (int i = 0; i < f_count; ++i)
+            {
+                long l_time_start = System.nanoTime();
+
+                System.arraycopy(f_grids, i * a_grid.length, a_grid, 0, a_grid.length);
+
+                boolean l_solved = false;
+
+                if (f_decoded[i])
+                {
+                    if (a_cache == null && a_store == null)
+                    {
+                        l_solved = a_solver.Solve(a_grid);
+                    }
+                    else
+                    {
+                        // Under a canonical key, the solution that's kept is that of the canonical puzzle (which is
+                        // also what the canonical puzzle's own key maps to), and it's mapped back to this puzzle.
+                        SudokuCanonicaliser.Canonical l_canonical = 
+                            a_canonicaliser != null ? a_canonicaliser.Canonicalise(a_grid) : null;
+
+                        SudokuSolutionCache.Key l_key = l_canonical != null ? l_canonical.GetKey() : 
+                            SudokuSolutionCache.Hash(a_grid, a_solver.GetWidthBox(), a_solver.GetHeightBox());
+
+                        l_solved = a_cache != null && a_cache.Get(l_key, a_grid);
+
+                        if (!l_solved && a_store != null && a_store.Get(l_key, a_grid))
+                        {
+                            if (a_cache != null)
+                            { a_cache.Put(l_key, a_grid); }
+
+                            l_solved = true;
+                        }
+
+                        if (l_solved && l_canonical != null)
+                        { System.arraycopy(l_canonical.FromCanonical(a_grid), 0, a_grid, 0, a_grid.length); }
+
+                        if (!l_solved && a_solver.Solve(a_grid))
+                        {
+                            int[] l_solution = l_canonical != null ? l_canonical.ToCanonical(a_grid) : a_grid;
+
+                            if (a_cache != null)
+                            { a_cache.Put(l_key, l_solution); }
+
+                            if (a_store != null)
+                            { a_store.Put(l_key, l_solution); }
+
+                            l_solved = true;
+                        }
+
+                    }
+
+                }
+
+                if (l_solved)
+                {
+                    for (int value : a_grid)
+                    { f_output[f_length_output++] = (byte)SudokuCorpus.SymbolOfValue(value); }
+
+                    ++f_count_solved;
+                }
+
+                f_output[f_length_output++] = '\n';
+
+                f_latencies[i] = System.nanoTime() - l_time_start;
+            }
+
+            // The puzzles are no longer needed.
+            f_grids = null;
+        }
+
+    } // private static final class Task
+
+    /* Stage
+     * An instance of this class is the live statistics of a stage of a batch: the no. of puzzles it has processed, the
+       time its thread(s) have spent processing them, and the no. of tasks waiting in its queue.
+    */
+    public static final class Stage
+    {
+        // The name of the stage.
+        private final String f_name;
+
+        // The queue from which the stage takes its tasks (null if the stage has no queue).
+        private final BlockingQueue<Task> f_queue;
+
+        // The no. of puzzles the stage has processed.
+        private final LongAdder f_count = new LongAdder();
+
+        // The no. of puzzles the stage has solved (only used by the Solve stage).
+        private final LongAdder f_count_solved = new LongAdder();
+
+        // The total time the stage's thread(s) have spent processing (rather than waiting) (ns).
+        private final LongAdder f_time_busy_nanos = new LongAdder();
+
+        // The time at which the stage was created (ns).
+        private final long f_time_start;
+
+        private Stage(String a_name, BlockingQueue<Task> a_queue)
+        {
+            f_name = a_name;
+            f_queue = a_queue;
+            f_time_start = System.nanoTime();
+        }
+
+        private void Record(int a_count, long a_time_nanos)
+        {
+            f_count.add(a_count);
+            f_time_busy_nanos.add(a_time_nanos);
+        }
+
+        public String GetName()
+        {
+            return f_name;
+        }
+
+        /*
+         * Returns the no. of tasks that are waiting in the stage's queue.
+        */
+        public int GetQueueDepth()
+        {
+            return f_queue == null ? 0 : f_queue.size();
+        }
+
+        public long GetCount()
+        {
+            return f_count.sum();
+        }
+
+        public long GetTimeBusyNanos()
+        {
+            return f_time_busy_nanos.sum();
+        }
+
+        /*
+         * Returns the no. of puzzles processed per second (wall-clock, since the stage was created).
+        */
+        public double GetPuzzlesPerSecond()
+        {
+            long l_time_nanos = System.nanoTime() - f_time_start;
+
+            return l_time_nanos == 0 ? 0 : GetCount() * 1e9 / l_time_nanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(
+                "%s: %d puzzles, %.1f puzzles/s, busy %.3f s, queue depth %d",
+                f_name, GetCount(), GetPuzzlesPerSecond(), GetTimeBusyNanos() / 1e9, GetQueueDepth()
+            );
+        }
+
+    } // public static final class Stage
+
+    /* Report
+     * An instance of this class contains the statistics of a batch: the no. of puzzles, the no. that were solved, the
+       total (wall-clock) time, the latency of each puzzle, and the statistics of each stage.
+    */
+    public static final class Report
+    {
+        // The no. of puzzles in the batch.
+        private final int f_count;
+
+        // The no. of puzzles that were solved.
+        private final int f_count_solved;
+
+        // The time from the start of the batch until its output was written (ns).
+        private final long f_time_nanos;
+
+        // The latency (time to solve) of each puzzle (ns), sorted in ascending order.
+        private final long f_latencies[];
+
+        // A summary of each stage, as of the end of the batch.
+        private final String f_stages[];
+
+        public Report(int a_count, int a_count_solved, long a_time_nanos, long[] a_latencies, Stage[] a_stages)
+        {
+            f_count = a_count;
+            f_count_solved = a_count_solved;
+            f_time_nanos = a_time_nanos;
+            f_latencies = a_latencies.clone();
+            f_stages = new String[a_stages.length];
+
+            Arrays.sort(f_latencies);
+
+            for (int i = 0; i < a_stages.length; ++i)
+            { f_stages[i] = a_stages[i].toString(); }
+        }
+
+        public int GetCount()
+        {
+            return f_count;
+        }
+
+        public int GetCountSolved()
+        {
+            return f_count_solved;
+        }
+
+        public long GetTimeNanos()
+        {
+            return f_time_nanos;
+        }
+
+        /*
+         * Returns the no. of puzzles solved per second (wall-clock).
+        */
+        public double GetPuzzlesPerSecond()
+        {
+            return f_time_nanos == 0 ? 0 : f_count * 1e9 / f_time_nanos;
+        }
+
+        /*
+         * Returns the latency (ns) below which the given percentage (0 to 100) of the puzzles fall (nearest rank).
+        */
+        public long GetLatencyPercentile(double a_percentile)
+        {
+            if (f_latencies.length == 0)
+            { return 0; }
+
+            int l_rank = (int)Math.ceil(a_percentile / 100 * f_latencies.length);
+
+            return f_latencies[Math.min(Math.max(l_rank, 1), f_latencies.length) - 1];
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder l_string = new StringBuilder(String.format(
+                "%d puzzles (%d solved) in %.3f s: %.1f puzzles/s; latency p50 = %.1f us, p99 = %.1f us",
+                f_count, f_count_solved, f_time_nanos / 1e9, GetPuzzlesPerSecond(),
+                GetLatencyPercentile(50) / 1e3, GetLatencyPercentile(99) / 1e3
+            ));
+
+            for (String stage : f_stages)
+            { l_string.append(System.lineSeparator()).append("  ").append(stage); }
+
+            return l_string.toString();
+        }
+
+    } // public static final class Report
+
+
+}
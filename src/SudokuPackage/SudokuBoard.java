@@ -3,34 +3,53 @@ package SudokuPackage;
 
 
 import java.awt.Color;
-import java.awt.GridBagConstraints;
-import java.awt.GridBagLayout;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Toolkit;
 
-import java.io.*;
+import java.awt.image.BufferedImage;
 
-import java.util.Scanner;
+import java.io.IOException;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
-import Utils.Rounder;
+import Utils.GlyphAtlas;
 
 
-/* Sudoku Board (Composition of SudokuCell)
+/* Sudoku Board
  * An instance of this class is a GUI of a sudoku board/grid.
  * A sudoku board is a square grid composed of n*n cells. Each cell is either empty or contains a number from 1 to n.
  * Each cell is either a 'guess cell' or a 'clue cell'. Clue cells are those whose numbers are given to the user, while
    guess cells are those that the user must fill in.
  * The cells are divided into a number of boxes.
  * A sudoku is solved when all of the numbers from 1 to n occur exactly once in each row, column, and box.
+ * The board is a single component: the values, clue flags and colours of the cells are kept in flat arrays (indexed 
+   row-major), and the whole grid (borders incl.) is painted into a back buffer, of which only the cells that change 
+   are redrawn (see DrawCell); a repaint then just copies the changed rectangles of the buffer to the screen.
+ * The arrays are the board's model, which may be changed by any thread (e.g. the solving thread): a change only marks
+   its cell as dirty, without a lock (see MarkDirty). The buffer belongs to the event-dispatching thread, on which a 
+   timer redraws the dirty cells, and requests a single repaint of them, at most S_RATE_FRAME times a second (see 
+   DrawDirtyCells): i.e. however fast the cells change, the screen is updated at a steady rate, and no Swing method is
+   called off the event-dispatching thread (the solving thread reads the controls of f_parent via fields that mirror 
+   them; see ThreadControl).
+ * The timer only runs while the board is displayed (see addNotify and removeNotify).
  
  * Class Composition:
      (a). Enums (2)
-     (b). Fields (23)
-         (i). Static Fields (11)
+     (b). Fields (43)
+         (i). Static Fields (17)
      (c). Constructors (1)
-     (d). Publics (10)
-     (e). Auxiliaries (16)
+     (d). Publics (17)
+     (e). Auxiliaries (23)
 */
 public class SudokuBoard
     extends JPanel
@@ -62,12 +81,64 @@ public class SudokuBoard
     
     
     
-// (b). Fields (23) ====================================================================================================
+// (b). Fields (43) ====================================================================================================
+    
+    /*
+     * The values of the cells, indexed row-major (the cell at (row, col) is at index row * n + col).
+     * It's never written by the search (which works on a copy; see Solve_Traced), so it only holds what's displayed.
+     * As n is at most 49, each value fits in a byte.
+    */
+    private byte f_values[];
+    
+    /*
+     * For each cell, a flag that, when true, indicates that the cell is a 'clue cell'; otherwise, it's a 'guess cell'.
+    */
+    private boolean f_clues[];
+    
+    /*
+     * The background colour of each cell (the ordinal of a CellColourEnum value).
+    */
+    private byte f_colours[];
+    
+    /*
+     * The size (width and height) of each cell (pixels).
+    */
+    private int f_size_cell;
+    
+    /*
+     * The x-coordinate of (the left of) each column, and the y-coordinate of (the top of) each row, in pixels: i.e. 
+       where each cell is painted.
+    */
+    private int f_x_cols[];
+    private int f_y_rows[];
+    
+    /*
+     * The image of the board, into which each cell is drawn when it changes (see DrawCell), and from which the board is
+       painted (see paintComponent).
+    */
+    private BufferedImage f_buffer;
+    
+    /*
+     * The graphics context of f_buffer (which is created once, rather than per cell drawn).
+    */
+    private Graphics2D f_graphics;
+    
+    /*
+     * The pre-rendered values (in the largest font that fits every value within a cell), so that drawing a cell's value
+       is a copy of an image.
+    */
+    private GlyphAtlas f_atlas;
+    
+    /*
+     * The cells that have changed since they were last drawn: a bit per cell (the cell at index i is bit i % 64 of 
+       element i / 64).
+    */
+    private AtomicLongArray f_dirty;
     
     /*
-     * The sudoku grid.
+     * The timer that draws the dirty cells (see DrawDirtyCells).
     */
-    private SudokuCell f_grid[][];
+    private Timer f_timer_frame;
     
     /*
      * The width of each box in the grid (no. of cells).
@@ -87,6 +158,11 @@ public class SudokuBoard
     */
     private int f_size_grid;
     
+    /*
+     * The lookup tables (rows, columns, boxes and peers of the cells) of the grid's geometry.
+    */
+    private SudokuGeometry f_geometry;
+    
     /*
      * The coordinate of the cell that the user has currently selected.
     */
@@ -127,8 +203,29 @@ public class SudokuBoard
     */
     private SudokuFrame f_parent;
     
+    /*
+     * The solver to which Solve delegates: it races several solving strategies.
+    */
+    private SudokuPortfolio f_portfolio;
+    
+    /*
+     * The directory of the persistent stores of solutions (one per geometry; see SudokuSolutionStore), or null if the
+       board has no store.
+    */
+    private Path f_directory_store;
+    
+    /*
+     * The store of solutions of the board's geometry (opened on first use by OpenStore, and closed by Dispose).
+    */
+    private SudokuSolutionStore f_store;
+    
+    /*
+     * The trace into which Solve_BackTracking records its steps (only non-null during SolveTraced).
+    */
+    private SudokuTrace f_trace;
+    
     
-// (b)(i). Static Fields (11) ------------------------------------------------------------------------------------------
+// (b)(i). Static Fields (17) ------------------------------------------------------------------------------------------
     
     // The default width of each box (no. of cells).
     private static final int S_WIDTH_BOX_DEFAULT = 3;
@@ -163,25 +260,52 @@ public class SudokuBoard
     // The value associated with an empty cell (no value is displayed when a cell has this value).
     private static final int S_VALUE_EMPTY_CELL = 0;
     
+    // The maximum no. of solutions held by S_CACHE.
+    private static final int S_CAPACITY_CACHE = 1024;
+    
+    // The solutions of the sudokus that have been solved by (any instance of) SudokuBoard.
+    private static final SudokuSolutionCache S_CACHE = new SudokuSolutionCache(S_CAPACITY_CACHE);
+    
+    // The maximum no. of times per second the dirty cells are drawn (and repainted).
+    static final int S_RATE_FRAME = 60;
+    
+    // The size of the padding around the text of a cell, as a proportion of the cell's size.
+    private static final float S_PADDING_PROPORTION = 0.1f;
+    
+    // The text of each value (so that drawing a cell doesn't create a string).
+    private static final String S_TEXTS[] = new String[Long.SIZE];
+    
+    // The values of CellColourEnum, by ordinal (so that f_colours can be mapped to them without copying values()).
+    private static final CellColourEnum S_COLOURS[] = CellColourEnum.values();
+    
     private static final long serialVersionUID = 1L;
     
+    static
+    {
+        for (int value = 1; value < S_TEXTS.length; ++value)
+        { S_TEXTS[value] = String.valueOf(value); }
+    }
+    
     
     
 // (c). Constructors (1) ===============================================================================================
     
     /*
          * Notes:
-             (a). First term is the width from the cells themselves. The second term is the width from the 'inner' borders,
-                  which divide the cells within each box. The third term is the width from the 'outer' borders, which
-                  divide the boxes and surround the sudoku grid (note that f_height_box is the no. of boxes in each row).
+             (a). Each cell is offset from the previous one (or the edge of the board) by the width of the border between 
+                  them: an 'outer' border, which divides the boxes and surrounds the sudoku grid, or an 'inner' border,
+                  which divides the cells within each box.
+             (b). a_directory_store is the directory in which the solutions are stored between runs (null for none).
     */
     public SudokuBoard(int a_width_box, int a_height_box, int a_size_cell, Color a_color_back, Color a_colour_cell_fill_normal, 
                        Color a_colour_cell_fill_selected, Color a_colour_cell_fill_valid, Color a_colour_cell_fill_invalid,
-                       Color a_colour_text_guess_cell, Color a_colour_text_clue_cell, SudokuFrame a_parent)
+                       Color a_colour_text_guess_cell, Color a_colour_text_clue_cell, SudokuFrame a_parent, 
+                       Path a_directory_store)
     {
-        super(new GridBagLayout());
+        super(null);
         
         f_parent = a_parent;
+        f_directory_store = a_directory_store;
         
         // Assign values to the box dimension fields.
         if ( (a_width_box < S_WIDTH_BOX_MIN || a_width_box > S_WIDTH_BOX_MAX) ||
@@ -200,6 +324,10 @@ public class SudokuBoard
         // The size of the grid (n*n) is equal to the product of a box's dimensions.
         f_size_grid = f_width_box * f_height_box;
         
+        f_geometry = SudokuGeometry.Of(f_width_box, f_height_box);
+        
+        f_portfolio = new SudokuPortfolio(f_width_box, f_height_box);
+        
         // Set the colours.
         super.setBackground(a_color_back);
         f_colour_cell_fill_normal = a_colour_cell_fill_normal;
@@ -210,116 +338,220 @@ public class SudokuBoard
         f_colour_text_clue_cell = a_colour_text_clue_cell;
         
         // Create the grid.
-        f_grid = new SudokuCell[f_size_grid][f_size_grid];
+        f_values = new byte[f_size_grid * f_size_grid];
+        f_clues = new boolean[f_size_grid * f_size_grid];
+        f_colours = new byte[f_size_grid * f_size_grid];
         
         // Get the maximum cell size.
         int l_cell_size_max = GetMaxCellSize();
         
         // Determine the cell size (ensure it isn't above the max value).
-        int l_cell_size = a_size_cell > l_cell_size_max ? l_cell_size_max : a_size_cell;
+        f_size_cell = a_size_cell > l_cell_size_max ? l_cell_size_max : a_size_cell;
         
-        GridBagConstraints l_constraints = new GridBagConstraints();
+        // (a). Position the cells: each is preceded by an outer border if it's along the left/top edge of a box, or an 
+        //      inner border otherwise.
+        f_x_cols = new int[f_size_grid];
+        f_y_rows = new int[f_size_grid];
         
-        // Populate the grid.
-        for (int row = 0; row < f_size_grid; ++row)
+        for (int i = 0, x = 0, y = 0; i < f_size_grid; ++i)
         {
-            // Set the y-coordinate of the row.
-            l_constraints.gridy = row;
+            x += i % f_width_box == 0 ? S_WIDTH_BORDER_OUTER : S_WIDTH_BORDER_INNER;
+            y += i % f_height_box == 0 ? S_WIDTH_BORDER_OUTER : S_WIDTH_BORDER_INNER;
             
-            for (int col = 0; col < f_size_grid; ++col)
-            {
-                // Set the x-coordinate of the cell.
-                l_constraints.gridx = col;
-                
-                // Reset the padding for each cell.
-                l_constraints.insets.set(0, 0, 0, 0);
-                
-                // A flag that, when true, indicates that the cell at the current (col,row) coordinate is along the left-edge of a box.
-                boolean l_is_along_left_edge_of_box = col == 0 || col % f_width_box == 0;
-                
-                // A flag that, when true, indicates that the cell at the current (col,row) coordinate is along the left-edge of a box.
-                boolean l_is_along_right_edge_of_box = Rounder.NearestMultiple(col, f_width_box) - 1 == col;
-                
-                // A flag that, when true, indicates that the cell at the current (col,row) coordinate is along the top-edge of a box.
-                boolean l_is_along_top_edge_of_box = row == 0 || row % f_height_box == 0;
-                
-                // A flag that, when true, indicates that the cell at the current (col,row) coordinate is along the left-edge of a box.
-                boolean l_is_along_bottom_edge_of_box = Rounder.NearestMultiple(row, f_height_box) - 1 == row;
-                
-                // Set top border.
-                if (l_is_along_top_edge_of_box)
-                { l_constraints.insets.top = S_WIDTH_BORDER_OUTER; }
-                
-                // Set bottom border
-                if (row == f_size_grid - 1)
-                { l_constraints.insets.bottom = S_WIDTH_BORDER_OUTER; }
-                if (!l_is_along_bottom_edge_of_box)
-                { l_constraints.insets.bottom = S_WIDTH_BORDER_INNER; }
-                
-                // Set left border.
-                if (l_is_along_left_edge_of_box)
-                { l_constraints.insets.left = S_WIDTH_BORDER_OUTER; }
-                
-                // Set right border
-                if (col == f_size_grid - 1)
-                { l_constraints.insets.right = S_WIDTH_BORDER_OUTER; }
-                else if (!l_is_along_right_edge_of_box)
-                { l_constraints.insets.right = S_WIDTH_BORDER_INNER; }
-                
-                // Create the cell.
-                f_grid[row][col] = new SudokuCell(S_VALUE_EMPTY_CELL, false, l_cell_size, l_cell_size, 
-                                                  f_colour_cell_fill_normal, f_colour_text_guess_cell);
-                
-                // Add the cell to the panel with the set constraints.
-                super.add(f_grid[row][col], l_constraints);
-            }
+            f_x_cols[i] = x;
+            f_y_rows[i] = y;
             
+            x += f_size_cell;
+            y += f_size_cell;
+        }
+        
+        int l_width = f_x_cols[f_size_grid - 1] + f_size_cell + S_WIDTH_BORDER_OUTER;
+        int l_height = f_y_rows[f_size_grid - 1] + f_size_cell + S_WIDTH_BORDER_OUTER;
+        
+        super.setPreferredSize(new Dimension(l_width, l_height));
+        
+        // Create the buffer, whose background is the colour of the borders.
+        f_buffer = new BufferedImage(l_width, l_height, BufferedImage.TYPE_INT_RGB);
+        
+        f_graphics = f_buffer.createGraphics();
+        f_graphics.setColor(a_color_back);
+        f_graphics.fillRect(0, 0, l_width, l_height);
+        
+        f_atlas = GlyphAtlas.Of(GetFont());
+        
+        // Draw the (empty) cells.
+        for (int cell = 0; cell < f_values.length; ++cell)
+        {
+            DrawCell(cell);
         }
         
+        f_dirty = new AtomicLongArray((f_values.length + Long.SIZE - 1) / Long.SIZE);
+        
+        f_timer_frame = new Timer(1000 / S_RATE_FRAME, e -> DrawDirtyCells());
+        
         f_coord_selected = new SudokuCoordinate(f_size_grid);
     }
     
     
     
-// (d). Publics (10) ===================================================================================================
+// (d). Publics (17) ===================================================================================================
+    
+    /*
+     * This method paints the board, by copying (the area to be repainted of) the buffer onto the screen.
+    */
+    @Override
+    public void paintComponent(Graphics g)
+    {
+        super.paintComponent(g);
+        
+        g.drawImage(f_buffer, 0, 0, null);
+    }
+    
+    /*
+     * This method starts f_timer_frame once the board is displayed.
+    */
+    @Override
+    public void addNotify()
+    {
+        super.addNotify();
+        
+        f_timer_frame.start();
+    }
+    
+    /*
+     * This method stops f_timer_frame once the board is no longer displayed, so that the timer doesn't keep running (or
+       keep the board alive).
+    */
+    @Override
+    public void removeNotify()
+    {
+        f_timer_frame.stop();
+        
+        super.removeNotify();
+    }
+    
+    /*
+     * This method releases the resources of the board (its timer, the threads of f_portfolio, and its store, which is
+       flushed, and closed if no other board uses it); afterwards, it can't be solved headlessly.
+    */
+    public void Dispose()
+    {
+        f_timer_frame.stop();
+        f_portfolio.close();
+        
+        try
+        {
+            if (f_store != null)
+            { f_store.close(); }
+        }
+        catch (IOException e)
+        {
+            System.out.println("The store of solutions couldn't be closed: " + e.getMessage());
+        }
+        
+        f_store = null;
+        f_directory_store = null;
+    }
     
     /*
      * This method attempts to solve the sudoku.
+     * The search is delegated to a (headless) portfolio of solvers, which means that the process isn't visualised; the
+       solution (if any) is written to the board once the search has finished.
       
      * Return Value:
          > A boolean corresponding to whether the sudoku was solved (or was already solved).
     */
     public boolean Solve()
     {
-        // Hide the selected cell.
-        f_grid[f_coord_selected.GetRow()][f_coord_selected.GetCol()].setBackground(GetColour(CellColourEnum.Normal));
+        return Solve(false);
+    }
+    
+    /*
+     * This method attempts to solve the sudoku via the recursive-backtracking process, recording each of its steps.
+     * The search runs at full speed, and doesn't change what's displayed: the board is left as it was, and the process
+       is visualised by replaying the trace (see Replay).
+      
+     * Return Value:
+         > The trace of the search, or null if there was no search (i.e. the sudoku is invalid or already solved).
+    */
+    public SudokuTrace SolveTraced()
+    {
+        Solve(true);
         
-        // A flag that, when true, indicates that the sudoku has been solved.
-        boolean l_solved = false;
+        SudokuTrace l_trace = f_trace;
         
-        if (!IsValid())
-        { 
-            System.out.println("The sudoku doesn't adhere to the rules of sudoku.");
-        }
-        else if (IsSolved())
+        f_trace = null;
+        
+        return l_trace;
+    }
+    
+    /*
+     * This method displays a step of a search (recorded by SolveTraced): the speed at which the steps are displayed is
+       dictated by f_parent (see ThreadControl).
+     
+     * Parameters:
+         > a_event: the step (see SudokuTrace).
+    */
+    public void Replay(int a_event)
+    {
+        int l_cell = SudokuTrace.CellOf(a_event);
+        int l_kind = SudokuTrace.KindOf(a_event);
+        
+        if (l_kind == SudokuTrace.S_KIND_PLACE || l_kind == SudokuTrace.S_KIND_REJECT)
         {
-            System.out.println("The sudoku is already solved.");
-            l_solved = true;
+            // Show which cell is currently under consideration.
+            SetCellColour(l_cell, CellColourEnum.Selected, false);
+            
+            SetValue(l_cell, SudokuTrace.ValueOf(a_event));
+            
+            if (l_kind == SudokuTrace.S_KIND_REJECT)
+            {
+                HighlightCell(l_cell, CellColourEnum.Invalid);
+            }
+            else
+            {
+                HighlightCell(l_cell, CellColourEnum.Valid);
+                SetCellColour(l_cell, CellColourEnum.Normal, false);
+            }
+            
         }
-        else if (Solve_BackTracking())
+        else if (l_kind == SudokuTrace.S_KIND_RETREAT)
         {
-            System.out.println("The sudoku has been solved!");
-            l_solved = true;
+            SetCellColour(l_cell, CellColourEnum.Selected, true);
         }
         else
         {
-            System.out.println("The sudoku has no solution.");
+            SetValue(l_cell, S_VALUE_EMPTY_CELL);
+            SetCellColour(l_cell, CellColourEnum.Normal, false);
         }
         
-        // Show the selected cell.
-        f_grid[f_coord_selected.GetRow()][f_coord_selected.GetCol()].setBackground(GetColour(CellColourEnum.Selected));
+    }
+    
+    /*
+     * This method displays the state of a search (recorded by SolveTraced) after the given no. of its steps, without
+       replaying the steps before it (see SudokuTrace.GetGrid); the cell of the last of those steps is shown as the 
+       one under consideration.
+     
+     * Parameters:
+         > a_trace: the trace of the search.
+         > a_index: the no. of steps (0 <= a_index <= a_trace.GetCount()).
+    */
+    public void ShowStep(SudokuTrace a_trace, int a_index)
+    {
+        int[] l_values = new int[f_values.length];
         
-        return l_solved;
+        a_trace.GetGrid(a_index, l_values);
+        
+        for (int cell = 0; cell < f_values.length; ++cell)
+        {
+            if (!f_clues[cell])
+            { SetValue(cell, l_values[cell]); }
+            
+            SetCellColour(cell, CellColourEnum.Normal, false);
+        }
+        
+        if (a_index > 0)
+        { SetCellColour(SudokuTrace.CellOf(a_trace.Get(a_index - 1)), CellColourEnum.Selected, false); }
     }
     
     /*
@@ -328,15 +560,11 @@ public class SudokuBoard
     */
     public void RemoveGuesses()
     {
-        for (int row = 0; row < f_size_grid; ++row)
+        for (int cell = 0; cell < f_values.length; ++cell)
         {
-            for (int col = 0; col < f_size_grid; ++col)
+            if (!f_clues[cell])
             {
-                if (!f_grid[row][col].IsClue())
-                {
-                    f_grid[row][col].SetValue(S_VALUE_EMPTY_CELL);
-                }
-
+                SetValue(cell, S_VALUE_EMPTY_CELL);
             }
             
         }
@@ -349,17 +577,9 @@ public class SudokuBoard
     */
     public void Clear()
     {
-        SudokuCoordinate l_coord = new SudokuCoordinate(f_size_grid);
-        
-        for (int row = 0; row < f_size_grid; ++row)
+        for (int cell = 0; cell < f_values.length; ++cell)
         {
-            for (int col = 0; col < f_size_grid; ++col)
-            {
-                l_coord.Set(row, col);
-                
-                ClearCell(l_coord);
-            }
-            
+            ClearCell(cell);
         }
         
     }
@@ -373,10 +593,7 @@ public class SudokuBoard
     */
     public void ClearCell(SudokuCoordinate a_coord)
     {
-        f_grid[a_coord.GetRow()][a_coord.GetCol()].SetValue(S_VALUE_EMPTY_CELL);
-        
-        f_grid[a_coord.GetRow()][a_coord.GetCol()].setBackground(GetColour(CellColourEnum.Normal));
-        f_grid[a_coord.GetRow()][a_coord.GetCol()].setForeground(f_colour_text_guess_cell);
+        ClearCell(a_coord.GetIndex());
     }
     
     /*
@@ -389,7 +606,7 @@ public class SudokuBoard
     */
     public void ChangeSelectedValue(boolean a_increase)
     {
-        int l_value_current = f_grid[f_coord_selected.GetRow()][f_coord_selected.GetCol()].GetValue();
+        int l_value_current = f_values[f_coord_selected.GetIndex()];
         
         int l_value_next;
         
@@ -413,7 +630,7 @@ public class SudokuBoard
             
         }
         
-        PlaceValue(l_value_next, f_coord_selected);
+        PlaceValue(l_value_next, f_coord_selected.GetIndex());
     }
     
     /*
@@ -425,7 +642,7 @@ public class SudokuBoard
     */
     public void ChangeSelectedValue(int a_value)
     {
-        PlaceValue(a_value, f_coord_selected);
+        PlaceValue(a_value, f_coord_selected.GetIndex());
     }
     
     /*
@@ -436,21 +653,7 @@ public class SudokuBoard
     */
     public boolean IsValid()
     {
-        SudokuCoordinate l_coord = new SudokuCoordinate(f_size_grid);
-        
-        for (int row = 0; row < f_size_grid; ++row)
-        {
-            for (int col = 0; col < f_size_grid; ++col)
-            {
-                l_coord.Set(row, col);
-                
-                if (!IsCellValid(l_coord))
-                { return false; }
-            }
-
-        }
-
-        return true;
+        return SudokuSolver.IsValid(GetValues(), f_width_box, f_height_box);
     }
     
     /*
@@ -461,69 +664,41 @@ public class SudokuBoard
     */
     public boolean IsSolved()
     {
-        for (int row = 0; row < f_size_grid; ++row)
-        {
-            for (int col = 0; col < f_size_grid; ++col)
-            {
-                if (f_grid[row][col].GetValue() == S_VALUE_EMPTY_CELL || !IsCellValid(new SudokuCoordinate(f_size_grid, row, col)))
-                { return false; }
-            }
-
-        }
-
-        return true;
+        return SudokuSolver.IsSolved(GetValues(), f_width_box, f_height_box);
     }
     
     /*
-     * Loads the grid with a sudoku located in the given file.
+     * Loads the grid with a sudoku located in the given file (see SudokuParser for the supported formats).
+     * If the file can't be read, or doesn't contain a sudoku of the board's dimensions, the board is left empty.
      
      * Parameters:
-         > a_file_sudoku: the value to place.
+         > a_file_sudoku: the path of the file.
     */
     public void SetFromFile(String a_file_sudoku)
     {
-        File l_file = new File(a_file_sudoku);
-        
-        Scanner l_scanner = null;
-        
         // Clear the board. 
         Clear();
         
         try 
         {
-            l_scanner = new Scanner(l_file);
-            
-            int l_width_box = l_scanner.nextInt();
-            int l_height_box = l_scanner.nextInt();
+            int[] l_grid = SudokuParser.ParseFile(Paths.get(a_file_sudoku), f_width_box, f_height_box).GetGrid();
             
-            if (l_width_box != f_width_box || l_height_box != f_height_box)
-            { return; }
-            
-            for (int row  = 0; row < f_size_grid; ++row)
+            for (int cell = 0; cell < f_values.length; ++cell)
             {
-                for (int col  = 0; col < f_size_grid; ++col)
-                {
-                    f_grid[row][col].SetValue(l_scanner.nextInt());
-                    
-                    // If the cell isn't empty, it's considered a clue.
-                    if (f_grid[row][col].GetValue() != S_VALUE_EMPTY_CELL)
-                    {
-                        f_grid[row][col].setForeground(f_colour_text_clue_cell);
-                        f_grid[row][col].SetIsClue(true);
-                    }
-                    
-                }
+                // If the cell isn't empty, it's considered a clue.
+                f_clues[cell] = l_grid[cell] != S_VALUE_EMPTY_CELL;
                 
+                SetValue(cell, l_grid[cell]);
             }
             
         } 
-        catch (Exception e)   
+        catch (IOException e)   
         {
-            e.printStackTrace();
+            System.out.println("The file '" + a_file_sudoku + "' couldn't be read: " + e);
         }
-        finally
+        catch (IllegalArgumentException e)   
         {
-            l_scanner.close();
+            System.out.println("The file '" + a_file_sudoku + "' isn't a valid sudoku: " + e.getMessage());
         }
         
         // Reset the selected cell.
@@ -533,110 +708,438 @@ public class SudokuBoard
     public void MoveSelection(Direction a_direction, boolean a_thread_control)
     {
         // Unselect the currently selected cell.
-        SetCellColour(f_coord_selected, CellColourEnum.Normal, false);
+        SetCellColour(f_coord_selected.GetIndex(), CellColourEnum.Normal, false);
         
         // Move the selected coordinate.
         f_coord_selected.Move(a_direction);
         
         // Select the cell at f_coord_selected.
-        SetCellColour(f_coord_selected, CellColourEnum.Selected, a_thread_control);
+        SetCellColour(f_coord_selected.GetIndex(), CellColourEnum.Selected, a_thread_control);
     }
     
     
     
-// (e). Auxiliaries (16) ===============================================================================================
+// (e). Auxiliaries (23) ===============================================================================================
+    
+    /* Auxiliary of Solve, SolveTraced
+     * This method attempts to solve the sudoku.
+      
+     * Parameters:
+         > a_visualise: a flag that, when true, indicates that the search is to be performed by Solve_BackTracking (and
+                        recorded, so that it can be replayed); otherwise, it's delegated to a SudokuSolver.
+      
+     * Return Value:
+         > A boolean corresponding to whether the sudoku was solved (or was already solved).
+    */
+    private boolean Solve(boolean a_visualise)
+    {
+        // Hide the selected cell.
+        SetCellColour(f_coord_selected.GetIndex(), CellColourEnum.Normal, false);
+        
+        // A flag that, when true, indicates that the sudoku has been solved.
+        boolean l_solved = false;
+        
+        if (!IsValid())
+        { 
+            System.out.println("The sudoku doesn't adhere to the rules of sudoku.");
+        }
+        else if (IsSolved())
+        {
+            System.out.println("The sudoku is already solved.");
+            l_solved = true;
+        }
+        else
+        {
+            try
+            {
+                if (a_visualise ? Solve_Traced() : Solve_Headless())
+                {
+                    System.out.println("The sudoku has been solved!");
+                    l_solved = true;
+                }
+                else if (!a_visualise || !f_trace.IsTruncated())
+                {
+                    System.out.println("The sudoku has no solution.");
+                }
+                
+            }
+            catch (IllegalStateException e)
+            {
+                // Every strategy of f_portfolio failed.
+                System.out.println("The sudoku couldn't be solved: " + e.getCause());
+            }
+            
+        }
+        
+        // Show the selected cell.
+        SetCellColour(f_coord_selected.GetIndex(), CellColourEnum.Selected, false);
+        
+        return l_solved;
+    }
+    
+    /* Auxiliary of Solve
+     * This method solves a copy of the grid via f_portfolio and, if a solution is found, places it on the board.
+     * The solution is looked up in S_CACHE first, then in the persistent store if the board has one (so a sudoku
+       solved in an earlier run, e.g. one loaded by SetFromFile, isn't searched again); only if it's in neither is the
+       search performed (and its solution cached and stored).
+     * A sudoku is keyed by its own clues rather than by its canonical form (see SudokuCanonicaliser): canonicalising
+       a sudoku costs far more than solving it (e.g. about 250 microseconds against 10-15 for a 9x9 sudoku).
+    */
+    private boolean Solve_Headless()
+    {
+        int[] l_values = GetValues();
+        
+        long l_time_start = System.nanoTime();
+        
+        SudokuSolutionCache.Key l_key = SudokuSolutionCache.Hash(l_values, f_width_box, f_height_box);
+        
+        if (S_CACHE.Get(l_key, l_values))
+        {
+            System.out.println("Cached solution; time: " + ((System.nanoTime() - l_time_start) / 1000) + 
+                               " microseconds.");
+            
+            SetValues(l_values);
+            return true;
+        }
+        
+        SudokuSolutionStore l_store = OpenStore();
+        
+        try
+        {
+            if (l_store != null && l_store.Get(l_key, l_values))
+            {
+                System.out.println("Stored solution; time: " + ((System.nanoTime() - l_time_start) / 1000) + 
+                                   " microseconds.");
+                
+                S_CACHE.Put(l_key, l_values);
+                SetValues(l_values);
+                return true;
+            }
+            
+        }
+        catch (IOException e)
+        {
+            System.out.println("The store couldn't be read: " + e.getMessage());
+        }
+        
+        // If every strategy fails, the IllegalStateException is reported by Solve.
+        SudokuPortfolio.Result l_result = f_portfolio.Solve(l_values);
+        
+        System.out.println("Strategy: " + l_result.GetStrategy() + "; time: " + 
+                           (l_result.GetTimeNanos() / 1000) + " microseconds.");
+        
+        if (l_result.IsSolved())
+        { 
+            S_CACHE.Put(l_key, l_values);
+            
+            try
+            {
+                if (l_store != null)
+                { l_store.Put(l_key, l_values); }
+            }
+            catch (IOException e)
+            {
+                System.out.println("The solution couldn't be stored: " + e.getMessage());
+            }
+            
+            SetValues(l_values); 
+        }
+        
+        return l_result.IsSolved();
+    }
+    
+    /* Auxiliary of Solve_Headless
+     * Returns the persistent store of solutions of the board's geometry (which is opened on first use, and shared by
+       every board of the same geometry and store directory), or null if the board has no store or it can't be opened.
+    */
+    private SudokuSolutionStore OpenStore()
+    {
+        if (f_store != null || f_directory_store == null)
+        { return f_store; }
+        
+        try
+        {
+            f_store = SudokuSolutionStore.Open(f_directory_store, f_width_box, f_height_box);
+        }
+        catch (IOException e)
+        {
+            System.out.println("The store of solutions couldn't be opened: " + e.getMessage());
+        }
+        
+        return f_store;
+    }
+    
+    /* Auxiliary of Solve_Headless, Solve_Traced, PlaceValue, IsValid, IsSolved
+     * Returns the values of the cells as a flat (row-major) array.
+    */
+    private int[] GetValues()
+    {
+        int[] l_values = new int[f_values.length];
+        
+        for (int cell = 0; cell < f_values.length; ++cell)
+        {
+            l_values[cell] = f_values[cell];
+        }
+        
+        return l_values;
+    }
+    
+    /* Auxiliary of Solve_Headless
+     * Sets the values of the guess cells from a flat (row-major) array.
+    */
+    private void SetValues(int[] a_values)
+    {
+        for (int cell = 0; cell < f_values.length; ++cell)
+        {
+            if (!f_clues[cell])
+            { SetValue(cell, a_values[cell]); }
+        }
+        
+    }
     
     /* Auxiliary of Solve
+     * This method performs the recursive-backtracking search on a copy of the values of the cells, recording its steps
+       into f_trace: the board itself isn't changed (the search is displayed by replaying the trace).
+     * If the trace reaches its capacity, the search is stopped (as its remaining steps couldn't be replayed).
+    */
+    private boolean Solve_Traced()
+    {
+        int[] l_values = GetValues();
+        
+        f_trace = new SudokuTrace(l_values);
+        
+        long l_time_start = System.nanoTime();
+        
+        boolean l_solved = Solve_BackTracking(l_values, 0);
+        
+        System.out.println("Steps: " + f_trace.GetCount() + "; time: " + ((System.nanoTime() - l_time_start) / 1000) + 
+                           " microseconds.");
+        
+        if (f_trace.IsTruncated())
+        { System.out.println("The search was stopped, as its trace is full."); }
+        
+        return l_solved;
+    }
+    
+    /* Auxiliary of Solve_Traced
      * This method tries to solve the sudoku using the backtracking technique.
      * An assumption is that the sudoku is valid to begin with: i.e. the method assumes that none of the pre-filled 
        cells violate the rules of sudoku.
+     * The search works on the given values alone, recording each of its steps into f_trace (see SudokuTrace), and 
+       passes its cells as indexes, so that it runs at full speed and (bar the growth of the trace) doesn't allocate.
+     
+     * Parameters:
+         > a_values: the values of the cells (row-major), which the search fills in.
+         > a_cell_start: the index of the cell from which to look for an empty cell; as the cells are filled in 
+                         row-major order, every cell before it is filled (the top call passes 0).
    
      * Notes:
         (a). All possible values may not need to be iterated over; it could even be the case that only value is
              considered for this cell. In other words, iterate over at most all values.
         (b). Note that it's not necessarily the case that the sudoku cannot be solved with the current value at the cell
-             (l_row, l_col), rather that this cannot occur on the current 'branch' of the recursive program.
+             l_cell, rather that this cannot occur on the current 'branch' of the recursive program.
         (c). If the current Solve_BackTracking call is the top/first one, this means that the sudoku cannot be
              solved: i.e. it's an impossible puzzle.
+        (d). The trace is full, so the search stops (without unwinding its placements, as a_values is discarded).
     */
-    private boolean Solve_BackTracking()
+    private boolean Solve_BackTracking(int[] a_values, int a_cell_start)
     {
-        // Variable to store the (empty) cell being considered by this Solve_BackTracking call.
-        SudokuCoordinate l_coord = new SudokuCoordinate(f_size_grid);
+        // The (empty) cell being considered by this Solve_BackTracking call.
+        int l_cell = NextEmptyCell(a_values, a_cell_start);
         
-        // Get the next empty cell; if a cell cannot be assigned, this means all cells are filled, which would imply that the sudoku is solved.
-        if (!AssignNextEmptyCell(l_coord))
+        // If there's no empty cell, all cells are filled, which would imply that the sudoku is solved.
+        if (l_cell == -1)
         { 
             return true; 
         }
-        
-        // Show which cell is currently under consideration.
-        SetCellColour(l_coord, CellColourEnum.Selected, false);
     
         // (a). Iterate over (at most) all possible values.
         for (int value = 1; value <= f_size_grid; ++value)
         {
+            a_values[l_cell] = value;
+            
             // Try to place the value; if it cannot be placed, continue to the next value.
-            if (!PlaceValue(value, l_coord))
+            if (!f_geometry.IsCellValid(a_values, l_cell))
             { 
-                HighlightCell(l_coord, CellColourEnum.Invalid);
+                if (!f_trace.Add(SudokuTrace.S_KIND_REJECT, l_cell, value))
+                { return false; } // (d).
+                
                 continue; 
             }
-            HighlightCell(l_coord, CellColourEnum.Valid);
             
-            SetCellColour(l_coord, CellColourEnum.Normal, false);
+            if (!f_trace.Add(SudokuTrace.S_KIND_PLACE, l_cell, value))
+            { return false; } // (d).
     
             // Execute a recursive call; if this call returns true, then the sudoku must be solved; therefore, return true.
-            if (Solve_BackTracking())
+            if (Solve_BackTracking(a_values, l_cell + 1))
             { return true; }
+            
+            if (f_trace.IsTruncated())
+            { return false; } // (d).
     
             // (b). If this line is reached, this means the sudoku cannot be solved with the current value. 
-            SetCellColour(l_coord, CellColourEnum.Selected, true);
+            if (!f_trace.Add(SudokuTrace.S_KIND_RETREAT, l_cell, value))
+            { return false; } // (d).
         }
         
         // Clear the cell.
-        f_grid[l_coord.GetRow()][l_coord.GetCol()].SetValue(S_VALUE_EMPTY_CELL);
-        SetCellColour(l_coord, CellColourEnum.Normal, false);
+        a_values[l_cell] = S_VALUE_EMPTY_CELL;
+        f_trace.Add(SudokuTrace.S_KIND_CLEAR, l_cell, S_VALUE_EMPTY_CELL);
     
         // (c). Return false so that the previous Solve_BackTracking call knows to try a different value.
         return false;
     }
     
-    /* Auxiliary of ChangeSelectedValue, Solve_BackTracking
-     * This method places the value a_value at the cell located at the given coordinate.
+    /* Auxiliary of ChangeSelectedValue
+     * This method places the value a_value at the given cell.
      
      * Parameters:
          > a_value: the value to place.
-         > a_coord: the coordinate at which a_value is to be placed.
+         > a_cell: the index of the cell at which a_value is to be placed.
          
      * Return Value:
          > a boolean that indicates whether the placement is valid
     */
-    private boolean PlaceValue(int a_value, SudokuCoordinate a_coord)
+    private boolean PlaceValue(int a_value, int a_cell)
+    {
+        if (a_value > f_size_grid || a_value < 1)
+        {
+            System.out.println("This value is invalid.");
+            return false;
+        }
+        if (f_clues[a_cell])
+        {
+            System.out.println("You cannot place a value in a clue cell.");
+            return false;
+        }
+        
+        SetValue(a_cell, a_value); 
+        
+        return f_geometry.IsCellValid(GetValues(), a_cell);
+    }
+    
+    /* Auxiliary of RemoveGuesses, Replay, ShowStep, SetFromFile, SetValues, PlaceValue, ClearCell
+     * This method sets the value of the given cell (which is redrawn on the next frame).
+    */
+    private void SetValue(int a_cell, int a_value)
     {
+        f_values[a_cell] = (byte)a_value;
         
-        try 
+        MarkDirty(a_cell);
+    }
+    
+    /* Auxiliary of Clear, ClearCell
+     * This method removes the value of the given cell (which becomes a guess cell), and resets its colour.
+    */
+    private void ClearCell(int a_cell)
+    {
+        f_values[a_cell] = S_VALUE_EMPTY_CELL;
+        f_clues[a_cell] = false;
+        f_colours[a_cell] = (byte)CellColourEnum.Normal.ordinal();
+        
+        MarkDirty(a_cell);
+    }
+    
+    /* Auxiliary of SetValue, ClearCell, SetCellColour
+     * This method marks the given cell as dirty, so that it's redrawn on the next frame (see DrawDirtyCells).
+     * The bit is set by an atomic update (a compare-and-set), which also publishes the change(s) to the cell made 
+       before it to the event-dispatching thread (which reads the bit, then the cell).
+    */
+    private void MarkDirty(int a_cell)
+    {
+        f_dirty.getAndAccumulate(a_cell / Long.SIZE, 1L << (a_cell % Long.SIZE), (a_bits, a_bit) -> a_bits | a_bit);
+    }
+    
+    /* Auxiliary of SudokuBoard (f_timer_frame)
+     * This method draws the dirty cells into the buffer (clearing their bits), then requests a single repaint of the 
+       rectangle that bounds them.
+    */
+    private void DrawDirtyCells()
+    {
+        // The bounds of the cells drawn (the top-left of the left-most and top-most cells, and so on).
+        int l_x_min = Integer.MAX_VALUE;
+        int l_y_min = Integer.MAX_VALUE;
+        int l_x_max = -1;
+        int l_y_max = -1;
+        
+        for (int i = 0; i < f_dirty.length(); ++i)
         {
-            if (a_value > f_size_grid || a_value < 1)
-            {
-                System.out.println("This value is invalid.");
-                return false;
-            }
-            if (f_grid[a_coord.GetRow()][a_coord.GetCol()].IsClue())
+            long l_bits = f_dirty.getAndSet(i, 0L);
+            
+            while (l_bits != 0)
             {
-                System.out.println("You cannot place a value in a clue cell.");
-                return false;
+                int l_cell = i * Long.SIZE + Long.numberOfTrailingZeros(l_bits);
+                
+                // Remove the lowest bit.
+                l_bits &= l_bits - 1;
+                
+                DrawCell(l_cell);
+                
+                int l_x = f_x_cols[f_geometry.ColOf(l_cell)];
+                int l_y = f_y_rows[f_geometry.RowOf(l_cell)];
+                
+                l_x_min = Math.min(l_x_min, l_x);
+                l_y_min = Math.min(l_y_min, l_y);
+                l_x_max = Math.max(l_x_max, l_x);
+                l_y_max = Math.max(l_y_max, l_y);
             }
             
-            f_grid[a_coord.GetRow()][a_coord.GetCol()].SetValue(a_value); 
         }
-        catch (IndexOutOfBoundsException e)
-        { 
-            e.printStackTrace();
-            return false;
+        
+        if (l_x_max != -1)
+        { super.repaint(l_x_min, l_y_min, l_x_max - l_x_min + f_size_cell, l_y_max - l_y_min + f_size_cell); }
+    }
+    
+    /* Auxiliary of SudokuBoard, DrawDirtyCells
+     * This method draws the given cell into the buffer: its background, then the image of its value (if any).
+    */
+    private void DrawCell(int a_cell)
+    {
+        int l_x = f_x_cols[f_geometry.ColOf(a_cell)];
+        int l_y = f_y_rows[f_geometry.RowOf(a_cell)];
+        
+        f_graphics.setColor(GetColour(S_COLOURS[f_colours[a_cell]]));
+        f_graphics.fillRect(l_x, l_y, f_size_cell, f_size_cell);
+        
+        if (f_values[a_cell] != S_VALUE_EMPTY_CELL)
+        {
+            String l_text = S_TEXTS[f_values[a_cell]];
+            
+            // Centre the text horizontally, and align its top (i.e. its ascent) with the padding atop the cell.
+            int l_x_text = l_x + (f_size_cell - f_atlas.GetWidth(l_text)) / 2;
+            int l_y_text = l_y + (int)(f_size_cell * S_PADDING_PROPORTION);
+            
+            Color l_colour_text = f_clues[a_cell] ? f_colour_text_clue_cell : f_colour_text_guess_cell;
+            
+            f_graphics.drawImage(f_atlas.Get(l_text, l_colour_text), l_x_text, l_y_text, null);
         }
         
-        return IsCellValid(a_coord);
+    }
+    
+    /* Auxiliary of SudokuBoard
+     * Returns the largest font at which the text of every value fits within a cell (excl. its padding).
+    */
+    private Font GetFont()
+    {
+        int l_padding = (int)(f_size_cell * S_PADDING_PROPORTION);
+        
+        // The maximum width and height of the text.
+        int l_size_max = f_size_cell - 2 * l_padding;
+        
+        // The widest text is that of the greatest value (as it has the most digits).
+        String l_text_widest = S_TEXTS[f_size_grid];
+        
+        for (int height = l_size_max; height > 1; --height)
+        {
+            Font l_font = new Font("Arial", Font.PLAIN, height);
+            
+            FontMetrics l_metrics = f_graphics.getFontMetrics(l_font);
+            
+            if (l_metrics.getAscent() <= l_size_max && l_metrics.stringWidth(l_text_widest) <= l_size_max)
+            { return l_font; }
+        }
+        
+        return new Font("Arial", Font.PLAIN, 1);
     }
     
     /* Auxiliary of SetFromFile
@@ -645,46 +1148,33 @@ public class SudokuBoard
     private void ResetSelectedCell()
     {
         // Unselect the currently selected cell.
-        SetCellColour(f_coord_selected, CellColourEnum.Normal, false);
+        SetCellColour(f_coord_selected.GetIndex(), CellColourEnum.Normal, false);
         
         // Move selection to the origin.
         f_coord_selected.Set(0, 0);
         
         // Display the selection.
-        SetCellColour(f_coord_selected, CellColourEnum.Selected, false);
+        SetCellColour(f_coord_selected.GetIndex(), CellColourEnum.Selected, false);
     }
     
-    /* Auxiliary of Solve_BackTracking
+    /* Auxiliary of Replay
      * This method sets the colour of the given cell and then returns it to its previous colour once the thread has been
        paused/halted for a period of time.
      
      * Parameters:
-         > a_coord: the coordinate of the cell whose colour is to be highlighted.
+         > a_cell: the index of the cell whose colour is to be highlighted.
          > a_colour: an enum value which represents the colour to highlight.
     */
-    private void HighlightCell(SudokuCoordinate a_coord, CellColourEnum a_colour)
+    private void HighlightCell(int a_cell, CellColourEnum a_colour)
     {
-        HighlightCell(a_coord, GetColour(a_colour));
-    }
-    
-    /* Auxiliary of HighlightCell
-     * This method sets the colour of the given cell and then returns it to its previous colour once the thread has been
-       paused/halted for a period of time.
-     
-     * Parameters:
-         > a_coord: the coordinate of the cell whose colour is to be highlighted.
-         > a_colour: the colour to highlight.
-    */
-    private void HighlightCell(SudokuCoordinate a_coord, Color a_colour)
-    {
-        // The bar's current colour.
-        Color l_colour_current = f_grid[a_coord.GetRow()][a_coord.GetCol()].getBackground();
+        // The cell's current colour.
+        CellColourEnum l_colour_current = S_COLOURS[f_colours[a_cell]];
         
-        // Highlight the bar.
-        SetCellColour(a_coord, a_colour, true);
+        // Highlight the cell.
+        SetCellColour(a_cell, a_colour, true);
         
-        // Return the bar's colour to the one prior to the highlight.
-        SetCellColour(a_coord, l_colour_current, false);
+        // Return the cell's colour to the one prior to the highlight.
+        SetCellColour(a_cell, l_colour_current, false);
     }
     
     /* Auxiliary of 
@@ -692,113 +1182,58 @@ public class SudokuBoard
        once the thread has been paused/halted for a period of time.
      
      * Parameters:
-         > a_coord_start: the coordinate of the first cell whose colour is to be highlighted.
-         > a_coord_end: the coordinate of the last cell whose colour is to be highlighted.
+         > a_cell_start: the index of the first cell whose colour is to be highlighted.
+         > a_cell_end: the index of the last cell whose colour is to be highlighted.
          > a_colour: an enum value which represents the colour to highlight.
     */
-    private void HighlightCellRange(SudokuCoordinate a_coord_start, SudokuCoordinate a_coord_end, CellColourEnum a_colour)
-    {
-        HighlightCellRange(a_coord_start, a_coord_end, GetColour(a_colour));
-    }
-    
-    /* Auxiliary of HighlightCellRange
-     * This method sets the colour of the cells within the given range and then returns them to their previous colour 
-       once the thread has been paused/halted for a period of time.
-     
-     * Parameters:
-         > a_coord_start: the coordinate of the first cell whose colour is to be highlighted.
-         > a_coord_end: the coordinate of the last cell whose colour is to be highlighted.
-         > a_colour: the colour to highlight.
-    */
-    private void HighlightCellRange(SudokuCoordinate a_coord_start, SudokuCoordinate a_coord_end, Color a_colour)
+    private void HighlightCellRange(int a_cell_start, int a_cell_end, CellColourEnum a_colour)
     {
-        // The bars' current colour.
-        // The assumption here is that all of the bars in the range have the colour of the bar at index a_index_start.
-        Color l_colour_current = Color.BLACK;
-        try
-        { l_colour_current = f_grid[a_coord_start.GetRow()][a_coord_start.GetCol()].getBackground(); }
-        catch (IndexOutOfBoundsException e)
-        { e.printStackTrace(); }
+        // The cells' current colour.
+        // The assumption here is that all of the cells in the range have the colour of the cell at index a_cell_start.
+        CellColourEnum l_colour_current = S_COLOURS[f_colours[a_cell_start]];
         
-        // Highlight the bar.
-        SetCellRangeColour(a_coord_start, a_coord_end, a_colour, true);
+        // Highlight the cells.
+        SetCellRangeColour(a_cell_start, a_cell_end, a_colour, true);
         
-        // Return the bar's colour to the one prior to the highlight.
-        SetCellRangeColour(a_coord_start, a_coord_end, l_colour_current, false);
+        // Return the cells' colour to the one prior to the highlight.
+        SetCellRangeColour(a_cell_start, a_cell_end, l_colour_current, false);
     }
     
-    /* Auxiliary of ResetSelectedCell, Solve_BackTracking, MoveSelection
-     * This method sets the cell at the given coordinate to the given colour.
+    /* Auxiliary of Solve, ShowStep, ResetSelectedCell, Replay, HighlightCell, MoveSelection, SetCellRangeColour
+     * This method sets the given cell to the given colour.
      
      * Parameters:
-         > a_coord_start: the coordinate of the first cell whose colour is to be set.
+         > a_cell: the index of the cell whose colour is to be set.
          > a_colour: an enum value which corresponds to the colour to set.
          > a_thread_control: a flag that, when true, indicates that the thread should be paused/halted before execution
                              continues.
     */
-    private void SetCellColour(SudokuCoordinate a_coord, CellColourEnum a_colour, boolean a_thread_control)
+    private void SetCellColour(int a_cell, CellColourEnum a_colour, boolean a_thread_control)
     {   
-        SetCellColour(a_coord, GetColour(a_colour), a_thread_control);
-    }
-    
-    /* Auxiliary of HighlightCell, SetCellColour
-     * This method sets the cell at the given coordinate to the given colour.
-     
-     * Parameters:
-         > a_coord: the coordinate of the cell whose colour is to be set.
-         > a_colour: the colour to set.
-         > a_thread_control: a flag that, when true, indicates that the thread should be paused/halted before execution
-                             continues.
-    */
-    private void SetCellColour(SudokuCoordinate a_coord, Color a_colour, boolean a_thread_control)
-    {
-        try
-        { f_grid[a_coord.GetRow()][a_coord.GetCol()].SetColourBack(a_colour); }
-        catch (IndexOutOfBoundsException e)
-        { e.printStackTrace(); }
+        f_colours[a_cell] = (byte)a_colour.ordinal();
+        
+        MarkDirty(a_cell);
         
         if (a_thread_control)
         { ThreadControl(); }
     }
     
-    /* Auxiliary of 
-     * This method sets the cells within the given range to the given colour.
+    /* Auxiliary of HighlightCellRange
+     * This method sets the cells within the given range (row-major, inclusive) to the given colour.
      
      * Parameters:
-         > a_coord_start: the coordinate of the first cell whose colour is to be set.
-         > a_coord_end: the coordinate of the last cell whose colour is to be set.
+         > a_cell_start: the index of the first cell whose colour is to be set.
+         > a_cell_end: the index of the last cell whose colour is to be set.
          > a_colour: an enum value which corresponds to the colour to set.
          > a_thread_control: a flag that, when true, indicates that the thread should be paused/halted before execution
                              continues.
     */
-    private void SetCellRangeColour(SudokuCoordinate a_coord_start, SudokuCoordinate a_coord_end, 
-                                    CellColourEnum a_colour, boolean a_thread_control)
-    {   
-        SetCellRangeColour(a_coord_start, a_coord_end, GetColour(a_colour), a_thread_control);
-    }
-    
-    /* Auxiliary of SetCellRangeColour
-     * This method sets the cells within the given range to the given colour.
-     
-     * Parameters:
-         > a_coord_start: the coordinate of the first cell whose colour is to be set.
-         > a_coord_end: the coordinate of the last cell whose colour is to be set.
-         > a_colour: the colour to set.
-         > a_thread_control: a flag that, when true, indicates that the thread should be paused/halted before execution
-                             continues.
-    */
-    private void SetCellRangeColour(SudokuCoordinate a_coord_start, SudokuCoordinate a_coord_end, Color a_colour, 
-                                    boolean a_thread_control)
+    private void SetCellRangeColour(int a_cell_start, int a_cell_end, CellColourEnum a_colour, boolean a_thread_control)
     {    
-        SudokuCoordinate l_coord_curr = new SudokuCoordinate(f_size_grid, a_coord_start.GetRow(), a_coord_start.GetCol());
-        
-        do
+        for (int cell = a_cell_start; cell <= a_cell_end; ++cell)
         {
-            SetCellColour(l_coord_curr, a_colour, false);
-            
-            l_coord_curr.Increment();
-            
-        } while (l_coord_curr.LessThan(a_coord_end));
+            SetCellColour(cell, a_colour, false);
+        }
         
         if (a_thread_control)
         { ThreadControl(); }
@@ -833,7 +1268,7 @@ public class SudokuBoard
         return l_width_cell > l_height_cell ? l_height_cell : l_width_cell;
     }
     
-    /* Auxiliary of SetCellColour, HighlightCell
+    /* Auxiliary of DrawCell
      * This method returns the colour which corresponds to the given enum value.
      
      * Parameters:
@@ -861,110 +1296,19 @@ public class SudokuBoard
         return Color.WHITE;
     }
     
-    /* Auxiliary of IsValid, IsSolved, PlaceValue
-     * This method returns whether or not the cell adheres to the rules of sudoku.
-    */
-    private boolean IsCellValid(SudokuCoordinate a_coord)
-    {
-        int l_row = a_coord.GetRow();
-        int l_col = a_coord.GetCol();
-        
-        int l_value = f_grid[l_row][l_col].GetValue();
-
-        // A cell can always be empty.
-        if (l_value == S_VALUE_EMPTY_CELL)
-        { return true; }
-
-        // Check if the value is equal to any within its row.
-        for (int col = 0; col < f_size_grid; ++col)
-        {
-            if (col == l_col)
-            { continue; }
-
-            if (l_value == f_grid[l_row][col].GetValue())
-            { return false; }
-        }
-
-        // Check if the value is equal to any within its column.
-        for (int row = 0; row < f_size_grid; ++row)
-        {
-            if (row == l_row)
-            { continue; }
-
-            if (l_value == f_grid[row][l_col].GetValue())
-            { return false; }
-        }
-
-        
-        // Check if the value is equal to any other within its box.
-        // Each box can be define by four values: a pair of min/max values for the rows and columns.
-
-        // Get the min and max row for the box at (a_col, a_row).
-        int l_index_row_min = l_row - (l_row % f_height_box);
-        int l_index_row_max = l_index_row_min + (f_height_box - 1);
-
-        // Get the min and max column for the box at (a_col, a_row).
-        int l_index_col_min = l_col - (l_col % f_width_box);
-        int l_index_col_max = l_index_col_min + (f_width_box - 1);
-
-        // Check if the value is equal to any within its box.
-        for (int row = l_index_row_min; row <= l_index_row_max; ++row)
-        {
-            for (int col = l_index_col_min; col <= l_index_col_max; ++col)
-            {
-                if (row == l_row && col == l_col)
-                { continue; }
-
-                if (l_value == f_grid[row][col].GetValue())
-                { return false; }
-            }
-
-        }
-
-        // If this point is reached, all of the conditions/rules have been satisfied; thus, return true.
-        return true;
-    }
-    
     /* Auxiliary of Solve_BackTracking
-         * Assigns to a_row and a_col the values which correspond to the location of the 'earliest' empty cell of f_grid.
-           In this context, the 'earliest' empty cell is the one at the lowest column/vertical position of the lowest row.
+     * Returns the index of the 'earliest' empty cell at or after the given one (or -1 if there's none). In this 
+       context, the 'earliest' empty cell is the one at the lowest column/vertical position of the lowest row.
     */
-    private boolean AssignNextEmptyCell(SudokuCoordinate a_coord)
+    private int NextEmptyCell(int[] a_values, int a_cell_start)
     {
-        // The row to start at (only for testing purposes; should be a parameter eventually, along with other options like
-        // up-down and left-right directions).
-        int indexRowStart = 0;
-        
-        for (int row = 0; row < f_size_grid; ++row)
+        for (int cell = a_cell_start; cell < a_values.length; ++cell)
         {
-            int rowOffset = (row + indexRowStart) % f_size_grid;
-            
-            // Right-to-left
-//            for (int col = f_size_grid - 1; col >= 0; --col)
-//            {
-//                
-//                if (f_grid[rowOffset][col].GetValue() == S_VALUE_EMPTY_CELL)
-//                {
-//                    a_coord.Set(rowOffset, col);
-//
-//                    return true;
-//                }
-//            }
-            
-            // Left-to-right
-            for (int col = 0; col < f_size_grid; ++col)
-            {
-                
-                if (f_grid[rowOffset][col].GetValue() == S_VALUE_EMPTY_CELL)
-                {
-                    a_coord.Set(rowOffset, col);
-
-                    return true;
-                }
-            }
+            if (a_values[cell] == S_VALUE_EMPTY_CELL)
+            { return cell; }
         }
 
-        return false;
+        return -1;
     }
     
     /* Auxiliary of SetCellColour, SetCellRangeColour
@@ -975,21 +1319,21 @@ public class SudokuBoard
     {
         try 
         {
-            if (f_parent.IsStepping())
+            // The mode is checked while holding the lock on which f_parent notifies, so that a change of mode (which is
+            // made while holding it) can't be missed.
+            synchronized (f_parent) 
             {
-                // Wait until the 'step' button is pressed.
-                //Thread.currentThread().wait();
-                synchronized (f_parent) 
+                if (f_parent.IsStepping())
                 {
+                    // Wait until the 'step' button is pressed.
                     f_parent.wait();
+                    return;
                 }
-
-            }
-            else
-            {
-                Thread.currentThread().sleep(f_parent.GetSortRate());
+                
             }
             
+            Thread.sleep(f_parent.GetSortRate());
+            
         } catch (InterruptedException e) 
         { }
         
@@ -0,0 +1,767 @@
+
+package SudokuPackage;
+
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+/* Sudoku Canonicaliser
+ * An instance of this class maps a sudoku (of a given geometry) to a canonical representative of its equivalence
+   class: two sudokus have the same canonical form if, and only if, one can be turned into the other by:
+     > relabelling its values;
+     > permuting the rows within each band (a row of boxes), and permuting the bands;
+     > permuting the columns within each stack (a column of boxes), and permuting the stacks;
+     > transposing it (only if the boxes are square).
+ * The canonical form is the grid that is the smallest, when read row-by-row, of all the grids that can be obtained via
+   the above transformations, where the values are relabelled in order of first appearance (so the first value to
+   appear is 1, the second is 2, etc.) and a filled cell is smaller than an empty one (so the rows with the most clues
+   come first, which settles most of the choices early).
+ * The search is exhaustive over the column permutations (which are enumerated when the instance is constructed), and
+   greedy over the rows: the canonical grid is built one row at a time, and after each row only the partial
+   transformations (the 'survivors') whose rows so far are the smallest are kept. Once every clue has been placed,
+   the remaining rows are empty, and the search stops.
+ * As the no. of column permutations grows very quickly with the size of the grid, only geometries with at most
+   S_MAX_COLUMN_PERMUTATIONS of them are supported: i.e. every geometry up to (and incl.) 12x12 grids.
+ * An instance is immutable (and therefore thread-safe).
+
+ * Class Composition:
+     (a). Fields (7)
+         (i). Static Fields (3)
+     (b). Constructors (1)
+     (c). Publics (4)
+         (i). Statics (1)
+     (d). Auxiliaries (7)
+     (e). Nested Classes (3)
+         (i). Static Classes (3)
+*/
+public class SudokuCanonicaliser
+{
+
+// (a). Fields (7) =====================================================================================================
+
+    /*
+     * The width and height of each box (no. of cells).
+    */
+    private final int f_width_box;
+    private final int f_height_box;
+
+    /*
+     * The dimension (width/height) of the grid: i.e. f_width_box * f_height_box.
+    */
+    private final int f_size_grid;
+
+    /*
+     * Every column permutation: element c of a permutation is the (original) column that is placed at column c.
+    */
+    private final int f_permutations_col[][];
+
+    /*
+     * A flag that, when true, indicates that the sudokus can be transposed (i.e. the boxes are square).
+    */
+    private final boolean f_transposable;
+
+    /*
+     * The value of an empty cell when rows are compared (greater than every label).
+    */
+    private final int f_key_empty;
+
+    /*
+     * The initial survivors: one for each column permutation (and each orientation); as survivors are immutable, they
+       are shared by every call to Canonicalise.
+    */
+    private final List<Survivor> f_roots;
+
+
+// (a)(i). Static Fields (3) -------------------------------------------------------------------------------------------
+
+    // The maximum no. of column permutations of a supported geometry.
+    private static final int S_MAX_COLUMN_PERMUTATIONS = 100000;
+
+    // The (minimum) no. of bytes of a file that are canonicalised together by Dedupe.
+    private static final int S_BYTES_PER_CHUNK = 1 << 16;
+
+    // The no. of chunks per processor that Dedupe canonicalises concurrently.
+    private static final int S_CHUNKS_PER_THREAD = 4;
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public SudokuCanonicaliser(int a_width_box, int a_height_box)
+    {
+        if (a_width_box < 1 || a_height_box < 1 || a_width_box * a_height_box > Long.SIZE - 1)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        long l_count = CountColumnPermutations(a_width_box, a_height_box);
+
+        if (l_count > S_MAX_COLUMN_PERMUTATIONS)
+        { throw new IllegalArgumentException("Grids of " + a_width_box + "x" + a_height_box + " boxes are too large."); }
+
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_size_grid = a_width_box * a_height_box;
+        f_transposable = a_width_box == a_height_box;
+        f_key_empty = f_size_grid + 1;
+
+        f_permutations_col = new int[(int)l_count][];
+
+        int[][] l_stacks = Permutations(a_height_box);
+        int[][] l_within = Permutations(a_width_box);
+
+        // Each permutation is an ordering of the stacks, and an ordering of the columns of each stack (like the digits
+        // of a mixed-radix number).
+        for (int i = 0; i < l_count; ++i)
+        {
+            int[] l_permutation = new int[f_size_grid];
+            int[] l_stack_order = l_stacks[i % l_stacks.length];
+
+            int l_rest = i / l_stacks.length;
+
+            for (int stack = 0; stack < a_height_box; ++stack)
+            {
+                int[] l_col_order = l_within[l_rest % l_within.length];
+                l_rest /= l_within.length;
+
+                for (int c = 0; c < a_width_box; ++c)
+                { l_permutation[stack * a_width_box + c] = l_stack_order[stack] * a_width_box + l_col_order[c]; }
+            }
+
+            f_permutations_col[i] = l_permutation;
+        }
+
+        List<Survivor> l_roots = new ArrayList<Survivor>();
+
+        for (int t = 0; t < (f_transposable ? 2 : 1); ++t)
+        {
+            for (int p = 0; p < f_permutations_col.length; ++p)
+            { l_roots.add(new Survivor(t == 1, p, f_size_grid)); }
+        }
+
+        f_roots = l_roots;
+
+    }
+
+
+
+// (c). Publics (4) ====================================================================================================
+
+    /*
+     * This method computes the canonical form of the given sudoku.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+
+     * Return Value:
+         > The canonical form, along with the transformation that maps the sudoku to it.
+    */
+    public Canonical Canonicalise(int[] a_grid)
+    {
+        if (a_grid.length != f_size_grid * f_size_grid)
+        { throw new IllegalArgumentException("The grid must contain " + (f_size_grid * f_size_grid) + " cells."); }
+
+        int l_count_clues = 0;
+
+        for (int value : a_grid)
+        {
+            if (value != SudokuSolver.S_VALUE_EMPTY_CELL)
+            { ++l_count_clues; }
+        }
+
+        List<Survivor> l_survivors = f_roots;
+
+        int[] l_row = new int[f_size_grid];
+        int[] l_row_best = new int[f_size_grid];
+        int[] l_labels = new int[f_size_grid + 1];
+
+        int l_count_placed = 0;
+
+        // The first row can only be one whose clues fill the most leading cells, which is determined by its no. of clues
+        // per stack (see Rank); this rules out most of the (many) initial survivors without computing their keys.
+        int[][] l_ranks = new int[f_transposable ? 2 : 1][f_size_grid];
+        int l_rank_max = 0;
+
+        for (int t = 0; t < l_ranks.length; ++t)
+        {
+            for (int r = 0; r < f_size_grid; ++r)
+            {
+                l_ranks[t][r] = Rank(a_grid, t == 1, r);
+                l_rank_max = Math.max(l_rank_max, l_ranks[t][r]);
+            }
+
+        }
+
+        // Build the canonical grid one row at a time (until every clue has been placed).
+        for (int k = 0; k < f_size_grid && l_count_placed < l_count_clues; ++k)
+        {
+            List<Survivor> l_next = new ArrayList<Survivor>();
+            boolean l_first = true;
+
+            for (Survivor survivor : l_survivors)
+            {
+                for (int r = 0; r < f_size_grid; ++r)
+                {
+                    if (!CanPlaceRow(survivor, k, r))
+                    { continue; }
+
+                    if (k == 0 && l_ranks[survivor.f_transposed ? 1 : 0][r] < l_rank_max)
+                    { continue; }
+
+                    System.arraycopy(survivor.f_labels, 0, l_labels, 0, l_labels.length);
+
+                    int l_count_labels = KeyRow(
+                        a_grid, survivor, r, l_labels, survivor.f_count_labels, l_row, l_first ? null : l_row_best
+                    );
+
+                    if (l_count_labels < 0)
+                    { continue; }
+
+                    int l_comparison = l_first ? -1 : Arrays.compare(l_row, l_row_best);
+
+                    if (l_comparison < 0)
+                    {
+                        l_next.clear();
+                        System.arraycopy(l_row, 0, l_row_best, 0, l_row.length);
+                        l_first = false;
+                    }
+
+                    l_next.add(survivor.Extend(k, r, l_labels, l_count_labels, f_height_box));
+                }
+
+            }
+
+            l_survivors = l_next;
+
+            for (int key : l_row_best)
+            {
+                if (key != f_key_empty)
+                { ++l_count_placed; }
+            }
+
+        }
+
+        // Every survivor yields the same grid; the first one's transformation is completed (the remaining rows, if any,
+        // are empty, so their order doesn't matter).
+        Survivor l_survivor = l_survivors.get(0);
+
+        for (int k = l_survivor.f_count_rows; k < f_size_grid; ++k)
+        {
+            for (int r = 0; r < f_size_grid; ++r)
+            {
+                if (CanPlaceRow(l_survivor, k, r))
+                {
+                    l_survivor = l_survivor.Extend(k, r, l_survivor.f_labels, l_survivor.f_count_labels, f_height_box);
+                    break;
+                }
+            }
+
+        }
+
+        // Label the values that aren't clues in increasing order (so that a solution can be mapped too).
+        int[] l_labels_all = l_survivor.f_labels.clone();
+        int l_count_labels = l_survivor.f_count_labels;
+
+        for (int value = 1; value <= f_size_grid; ++value)
+        {
+            if (l_labels_all[value] == 0)
+            { l_labels_all[value] = ++l_count_labels; }
+        }
+
+        Canonical l_canonical = new Canonical(
+            f_size_grid, l_survivor.f_transposed, l_survivor.f_rows, f_permutations_col[l_survivor.f_permutation_col],
+            l_labels_all
+        );
+
+        l_canonical.f_grid = l_canonical.ToCanonical(a_grid);
+        l_canonical.f_key = SudokuSolutionCache.Hash(l_canonical.f_grid, f_width_box, f_height_box);
+
+        return l_canonical;
+    }
+
+    /*
+     * This method returns the hash of the canonical form of the given sudoku: i.e. two sudokus have the same hash if,
+       and only if, they're equivalent (barring a negligible chance of collision).
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+    */
+    public SudokuSolutionCache.Key Hash(int[] a_grid)
+    {
+        return Canonicalise(a_grid).GetKey();
+    }
+
+    /*
+     * This method returns whether the given sudokus are equivalent.
+    */
+    public boolean AreEquivalent(int[] a_grid_a, int[] a_grid_b)
+    {
+        return Arrays.equals(Canonicalise(a_grid_a).GetGrid(), Canonicalise(a_grid_b).GetGrid());
+    }
+
+
+// (c)(i). Statics (1) -------------------------------------------------------------------------------------------------
+
+    /*
+     * This method copies the sudokus of a file (one per line; see SudokuCorpus) to another, omitting every sudoku that
+       is equivalent to an earlier one (malformed lines are omitted too).
+     * As canonicalisation dominates the cost, the file's chunks are canonicalised concurrently (on the common pool), a
+       window of S_CHUNKS_PER_THREAD chunks per processor at a time; the window's chunks are then filtered and written
+       in order, so the output is the same as that of a sequential pass.
+
+     * Parameters:
+         > a_input: the file of sudokus.
+         > a_output: the file to which the distinct sudokus are written (as they appear in a_input).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+
+     * Return Value:
+         > The no. of distinct sudokus.
+    */
+    public static int Dedupe(Path a_input, Path a_output, int a_width_box, int a_height_box)
+        throws IOException
+    {
+        SudokuCanonicaliser l_canonicaliser = new SudokuCanonicaliser(a_width_box, a_height_box);
+
+        List<ByteBuffer> l_chunks = new SudokuCorpus(a_input).Split(S_BYTES_PER_CHUNK);
+
+        int l_size_window = S_CHUNKS_PER_THREAD * Runtime.getRuntime().availableProcessors();
+
+        Set<SudokuSolutionCache.Key> l_keys = new HashSet<SudokuSolutionCache.Key>();
+
+        try (OutputStream l_stream = new BufferedOutputStream(Files.newOutputStream(a_output), 1 << 16))
+        {
+            for (int start = 0; start < l_chunks.size(); start += l_size_window)
+            {
+                List<Chunk> l_window = l_chunks.subList(start, Math.min(start + l_size_window, l_chunks.size()))
+                                               .parallelStream()
+                                               .map(l_canonicaliser::CanonicaliseChunk)
+                                               .collect(Collectors.toList());
+
+                for (Chunk chunk : l_window)
+                {
+                    for (int i = 0; i < chunk.f_keys.size(); ++i)
+                    {
+                        if (l_keys.add(chunk.f_keys.get(i)))
+                        { l_stream.write(chunk.f_lines, i * chunk.f_length_line, chunk.f_length_line); }
+                    }
+
+                }
+
+            }
+
+        }
+
+        return l_keys.size();
+    }
+
+
+
+// (d). Auxiliaries (7) ================================================================================================
+
+    /* Auxiliary of Dedupe
+     * Decodes the well-formed sudokus of the given chunk (of a file; see SudokuCorpus), and computes the hash of each
+       one's canonical form.
+    */
+    private Chunk CanonicaliseChunk(ByteBuffer a_chunk)
+    {
+        int[] l_grid = new int[f_size_grid * f_size_grid];
+
+        Chunk l_chunk = new Chunk(l_grid.length + 1);
+
+        SudokuCorpus.DecodeStatus l_status;
+
+        while ((l_status = SudokuCorpus.Decode(a_chunk, l_grid, f_size_grid)) != SudokuCorpus.DecodeStatus.End)
+        {
+            if (l_status == SudokuCorpus.DecodeStatus.Decoded)
+            { l_chunk.Add(Hash(l_grid), l_grid); }
+        }
+
+        return l_chunk;
+    }
+
+    /* Auxiliary of Canonicalise
+     * Returns whether the (original) row a_row can be placed at row a_k of the survivor's grid: rows of the same band
+       must be placed together, so the first row of a band can be any row of a band that hasn't been placed, and any
+       other row must come from the same band as the first.
+    */
+    private boolean CanPlaceRow(Survivor a_survivor, int a_k, int a_row)
+    {
+        if ((a_survivor.f_used_rows & (1L << a_row)) != 0)
+        { return false; }
+
+        int l_band = a_row / f_height_box;
+
+        if (a_k % f_height_box == 0)
+        { return (a_survivor.f_used_bands & (1L << l_band)) == 0; }
+
+        return a_survivor.f_rows[a_k - 1] / f_height_box == l_band;
+    }
+
+    /* Auxiliary of Canonicalise
+     * Computes the keys of (original) row a_row under the survivor's column permutation: the label of each value
+       (labelling any unlabelled values in order of appearance), or f_key_empty for an empty cell.
+     * As most candidates are rejected within the first few cells, the computation stops as soon as the keys are known
+       to be greater than a_keys_best.
+
+     * Return Value:
+         > The no. of values that are labelled afterwards, or -1 if the keys are greater than a_keys_best.
+    */
+    private int KeyRow(int[] a_grid, Survivor a_survivor, int a_row, int[] a_labels, int a_count_labels, int[] a_keys,
+                       int[] a_keys_best)
+    {
+        int[] l_permutation = f_permutations_col[a_survivor.f_permutation_col];
+
+        // A flag that, when true, indicates that the keys so far are equal to the best ones.
+        boolean l_equal = a_keys_best != null;
+
+        for (int c = 0; c < f_size_grid; ++c)
+        {
+            int l_col = l_permutation[c];
+
+            int l_value = a_survivor.f_transposed ? a_grid[l_col * f_size_grid + a_row] :
+                                                    a_grid[a_row * f_size_grid + l_col];
+
+            if (l_value == SudokuSolver.S_VALUE_EMPTY_CELL)
+            {
+                a_keys[c] = f_key_empty;
+            }
+            else
+            {
+                if (a_labels[l_value] == 0)
+                { a_labels[l_value] = ++a_count_labels; }
+
+                a_keys[c] = a_labels[l_value];
+            }
+
+            if (l_equal && a_keys[c] != a_keys_best[c])
+            {
+                if (a_keys[c] > a_keys_best[c])
+                { return -1; }
+
+                l_equal = false;
+            }
+
+        }
+
+        return a_count_labels;
+    }
+
+    /* Auxiliary of Canonicalise
+     * Returns the rank of (original) row a_row: its no. of clues per stack, sorted in descending order, as the digits
+       of a number (base f_width_box + 1). Under the best column permutation, a row's keys are smaller than another's
+       if, and only if, its rank is greater.
+    */
+    private int Rank(int[] a_grid, boolean a_transposed, int a_row)
+    {
+        int[] l_counts = new int[f_height_box];
+
+        for (int c = 0; c < f_size_grid; ++c)
+        {
+            int l_value = a_transposed ? a_grid[c * f_size_grid + a_row] : a_grid[a_row * f_size_grid + c];
+
+            if (l_value != SudokuSolver.S_VALUE_EMPTY_CELL)
+            { ++l_counts[c / f_width_box]; }
+        }
+
+        Arrays.sort(l_counts);
+
+        int l_rank = 0;
+
+        for (int i = f_height_box - 1; i >= 0; --i)
+        { l_rank = l_rank * (f_width_box + 1) + l_counts[i]; }
+
+        return l_rank;
+    }
+
+    /* Auxiliary of SudokuCanonicaliser
+     * Returns the no. of column permutations of the given geometry, or a number greater than S_MAX_COLUMN_PERMUTATIONS
+       if there are more of them (the count stops once it exceeds it).
+    */
+    private static long CountColumnPermutations(int a_width_box, int a_height_box)
+    {
+        // The no. of stacks is the height of a box, and each stack is as wide as a box.
+        long l_count = Factorial(a_height_box);
+
+        for (int i = 0; i < a_height_box && l_count <= S_MAX_COLUMN_PERMUTATIONS; ++i)
+        { l_count *= Factorial(a_width_box); }
+
+        return l_count;
+    }
+
+    /* Auxiliary of CountColumnPermutations
+     * Returns a_n!.
+    */
+    private static long Factorial(int a_n)
+    {
+        long l_factorial = 1;
+
+        for (int i = 2; i <= a_n; ++i)
+        { l_factorial *= i; }
+
+        return l_factorial;
+    }
+
+    /* Auxiliary of SudokuCanonicaliser
+     * Returns every permutation of 0 to a_n - 1.
+    */
+    private static int[][] Permutations(int a_n)
+    {
+        List<int[]> l_permutations = new ArrayList<int[]>();
+
+        int[] l_permutation = new int[a_n];
+
+        for (int i = 0; i < a_n; ++i)
+        { l_permutation[i] = i; }
+
+        // Heap's algorithm (iterative).
+        int[] l_counters = new int[a_n];
+
+        l_permutations.add(l_permutation.clone());
+
+        for (int i = 1; i < a_n; )
+        {
+            if (l_counters[i] < i)
+            {
+                int l_j = i % 2 == 0 ? 0 : l_counters[i];
+
+                int l_temp = l_permutation[l_j];
+                l_permutation[l_j] = l_permutation[i];
+                l_permutation[i] = l_temp;
+
+                l_permutations.add(l_permutation.clone());
+
+                ++l_counters[i];
+                i = 1;
+            }
+            else
+            {
+                l_counters[i] = 0;
+                ++i;
+            }
+
+        }
+
+        return l_permutations.toArray(new int[0][]);
+    }
+
+
+
+// (e). Nested Classes (3) =============================================================================================
+
+
+// (e)(i). Static Classes (3) ------------------------------------------------------------------------------------------
+
+    /* Survivor
+     * An instance of this class is a partial transformation whose rows (so far) are the smallest: whether the grid is
+       transposed, the column permutation, the rows that have been placed, and the labels that have been assigned.
+    */
+    private static final class Survivor
+    {
+        // A flag that, when true, indicates that the grid is transposed.
+        private final boolean f_transposed;
+
+        // The index of the column permutation.
+        private final int f_permutation_col;
+
+        // The (original) row that is placed at each row; only the first f_count_rows elements are meaningful.
+        private final int f_rows[];
+        private final int f_count_rows;
+
+        // The rows and bands that have been placed (bitsets).
+        private final long f_used_rows;
+        private final long f_used_bands;
+
+        // The label of each value (0 if unlabelled), and the no. of values that are labelled.
+        private final int f_labels[];
+        private final int f_count_labels;
+
+        public Survivor(boolean a_transposed, int a_permutation_col, int a_size_grid)
+        {
+            this(a_transposed, a_permutation_col, new int[a_size_grid], 0, 0, 0, new int[a_size_grid + 1], 0);
+        }
+
+        private Survivor(boolean a_transposed, int a_permutation_col, int[] a_rows, int a_count_rows, long a_used_rows,
+                         long a_used_bands, int[] a_labels, int a_count_labels)
+        {
+            f_transposed = a_transposed;
+            f_permutation_col = a_permutation_col;
+            f_rows = a_rows;
+            f_count_rows = a_count_rows;
+            f_used_rows = a_used_rows;
+            f_used_bands = a_used_bands;
+            f_labels = a_labels;
+            f_count_labels = a_count_labels;
+        }
+
+        /*
+         * Returns a survivor that is this one with (original) row a_row placed at row a_k, and the given labels.
+        */
+        public Survivor Extend(int a_k, int a_row, int[] a_labels, int a_count_labels, int a_height_box)
+        {
+            int[] l_rows = f_rows.clone();
+            l_rows[a_k] = a_row;
+
+            return new Survivor(
+                f_transposed, f_permutation_col, l_rows, a_k + 1, f_used_rows | (1L << a_row),
+                f_used_bands | (1L << (a_row / a_height_box)), a_labels.clone(), a_count_labels
+            );
+        }
+
+    } // private static final class Survivor
+
+    /* Chunk
+     * An instance of this class is the well-formed sudokus of a chunk of a file (as lines of output), along with the
+       hash of each one's canonical form.
+    */
+    private static final class Chunk
+    {
+        // The hash of each sudoku's canonical form.
+        private final List<SudokuSolutionCache.Key> f_keys = new ArrayList<SudokuSolutionCache.Key>();
+
+        // The sudokus' lines (one after another, each f_length_line bytes long, incl. the newline).
+        private byte f_lines[];
+        private final int f_length_line;
+
+        public Chunk(int a_length_line)
+        {
+            f_length_line = a_length_line;
+            f_lines = new byte[a_length_line * 64];
+        }
+
+        /*
+         * Appends a sudoku (and the hash of its canonical form) to the chunk.
+        */
+        public void Add(SudokuSolutionCache.Key a_key, int[] a_grid)
+        {
+            int l_offset = f_keys.size() * f_length_line;
+
+            if (l_offset + f_length_line > f_lines.length)
+            { f_lines = Arrays.copyOf(f_lines, 2 * f_lines.length); }
+
+            for (int i = 0; i < a_grid.length; ++i)
+            {
+                f_lines[l_offset + i] = a_grid[i] == SudokuSolver.S_VALUE_EMPTY_CELL ? 
+                                        (byte)'.' : (byte)SudokuCorpus.SymbolOfValue(a_grid[i]);
+            }
+
+            f_lines[l_offset + a_grid.length] = '\n';
+
+            f_keys.add(a_key);
+        }
+
+    } // private static final class Chunk
+
+    /* Canonical
+     * An instance of this class is the canonical form of a sudoku, along with the transformation that maps the sudoku
+       (and any grid of the same geometry, such as its solution) to it, and back.
+    */
+    public static final class Canonical
+    {
+        // The dimension (width/height) of the grid.
+        private final int f_size_grid;
+
+        // A flag that, when true, indicates that the original grid is transposed.
+        private final boolean f_transposed;
+
+        // The (original) row and column that are placed at each row and column of the canonical grid.
+        private final int f_rows[];
+        private final int f_cols[];
+
+        // The label of each value (f_labels[v] is the canonical value of original value v), and its inverse.
+        private final int f_labels[];
+        private final int f_values[];
+
+        // The canonical grid, and its hash.
+        private int f_grid[];
+        private SudokuSolutionCache.Key f_key;
+
+        private Canonical(int a_size_grid, boolean a_transposed, int[] a_rows, int[] a_cols, int[] a_labels)
+        {
+            f_size_grid = a_size_grid;
+            f_transposed = a_transposed;
+            f_rows = a_rows;
+            f_cols = a_cols;
+            f_labels = a_labels;
+            f_values = new int[a_labels.length];
+
+            for (int value = 1; value < a_labels.length; ++value)
+            { f_values[a_labels[value]] = value; }
+        }
+
+        /*
+         * Returns the canonical grid (row-major, length n*n).
+        */
+        public int[] GetGrid()
+        {
+            return f_grid.clone();
+        }
+
+        /*
+         * Returns the hash of the canonical grid (the same for every equivalent sudoku).
+        */
+        public SudokuSolutionCache.Key GetKey()
+        {
+            return f_key;
+        }
+
+        /*
+         * Applies the transformation to the given grid (e.g. the solution of the original sudoku, to get the solution
+           of the canonical one).
+        */
+        public int[] ToCanonical(int[] a_grid)
+        {
+            int[] l_grid = new int[a_grid.length];
+
+            for (int k = 0; k < f_size_grid; ++k)
+            {
+                for (int c = 0; c < f_size_grid; ++c)
+                { l_grid[k * f_size_grid + c] = f_labels[a_grid[OriginalIndex(k, c)]]; }
+            }
+
+            return l_grid;
+        }
+
+        /*
+         * Applies the inverse of the transformation to the given grid (e.g. the solution of the canonical sudoku, to
+           get the solution of the original one).
+        */
+        public int[] FromCanonical(int[] a_grid)
+        {
+            int[] l_grid = new int[a_grid.length];
+
+            for (int k = 0; k < f_size_grid; ++k)
+            {
+                for (int c = 0; c < f_size_grid; ++c)
+                { l_grid[OriginalIndex(k, c)] = f_values[a_grid[k * f_size_grid + c]]; }
+            }
+
+            return l_grid;
+        }
+
+        /*
+         * Returns the index of the original cell that is placed at (a_k, a_c) of the canonical grid.
+        */
+        private int OriginalIndex(int a_k, int a_c)
+        {
+            return f_transposed ? f_cols[a_c] * f_size_grid + f_rows[a_k] : f_rows[a_k] * f_size_grid + f_cols[a_c];
+        }
+
+    } // public static final class Canonical
+
+
+}
@@ -0,0 +1,128 @@
+
+package SudokuPackage;
+
+
+/* Sudoku Cell Selector
+ * An implementation of this interface decides which empty cell a SudokuSolver branches on next.
+ * The choice of cell has no bearing on the correctness of the search, but has a large effect on its size: the fewer
+   values that can be placed at the chosen cell, the fewer branches there are to explore.
+ * The solver maintains (incrementally) the set of empty cells, the no. of candidates of each empty cell, and the no. of
+   empty peers of each empty cell (its 'degree'), so that selectors don't need to rescan the grid.
+
+ * Composition:
+     (a). Methods (1)
+     (b). Nested Classes (2)
+*/
+public interface SudokuCellSelector
+{
+
+// (a). Methods (1) ====================================================================================================
+
+    /*
+     * Returns the index of the empty cell to branch on next, or -1 if there are no empty cells.
+
+     * Parameters:
+         > a_solver: the solver whose state is to be inspected.
+    */
+    int SelectCell(SudokuSolver a_solver);
+
+
+
+// (b). Nested Classes (2) =============================================================================================
+
+    /* Row-Major Selector
+     * Selects the 'earliest' empty cell: i.e. the one at the lowest column of the lowest row (this is the order used by
+       SudokuBoard's visualised search).
+     * The scan can start at a row other than the first and/or traverse each row from right to left.
+    */
+    public static final class RowMajor
+        implements SudokuCellSelector
+    {
+        // The row at which the scan starts.
+        private final int f_index_row_start;
+
+        // A flag that, when true, indicates that each row is traversed from right to left.
+        private final boolean f_right_to_left;
+
+        public RowMajor()
+        {
+            this(0, false);
+        }
+
+        public RowMajor(int a_index_row_start, boolean a_right_to_left)
+        {
+            f_index_row_start = a_index_row_start;
+            f_right_to_left = a_right_to_left;
+        }
+
+        @Override
+        public int SelectCell(SudokuSolver a_solver)
+        {
+            int l_size_grid = a_solver.GetSizeGrid();
+
+            for (int row = 0; row < l_size_grid; ++row)
+            {
+                int l_row_offset = (row + f_index_row_start) % l_size_grid;
+
+                for (int col = 0; col < l_size_grid; ++col)
+                {
+                    int l_col_offset = f_right_to_left ? l_size_grid - 1 - col : col;
+
+                    int l_index = l_row_offset * l_size_grid + l_col_offset;
+
+                    if (a_solver.GetValue(l_index) == SudokuSolver.S_VALUE_EMPTY_CELL)
+                    { return l_index; }
+                }
+
+            }
+
+            return -1;
+        }
+
+    } // public static final class RowMajor
+
+    /* Minimum-Remaining-Values Selector
+     * Selects the empty cell with the fewest candidates ('fail-first'); ties are broken by selecting the cell with the
+       most empty peers (the 'degree' heuristic), as placing a value there constrains the most other cells.
+     * The scan stops early when a cell with zero or one candidates is found, as no cell can be better.
+    */
+    public static final class MinimumRemainingValues
+        implements SudokuCellSelector
+    {
+        @Override
+        public int SelectCell(SudokuSolver a_solver)
+        {
+            int l_index_best = -1;
+            int l_count_best = Integer.MAX_VALUE;
+            int l_degree_best = -1;
+
+            for (int i = a_solver.GetCountEmpty() - 1; i >= 0; --i)
+            {
+                int l_index = a_solver.GetEmptyCell(i);
+
+                int l_count = a_solver.GetCountCandidates(l_index);
+
+                if (l_count > l_count_best)
+                { continue; }
+
+                int l_degree = a_solver.GetDegree(l_index);
+
+                if (l_count < l_count_best || l_degree > l_degree_best)
+                {
+                    l_index_best = l_index;
+                    l_count_best = l_count;
+                    l_degree_best = l_degree;
+
+                    if (l_count_best <= 1)
+                    { break; }
+                }
+
+            }
+
+            return l_index_best;
+        }
+
+    } // public static final class MinimumRemainingValues
+
+
+}
@@ -39,7 +39,13 @@ public class SudokuCoordinate
     {
         return f_index_col;
     }
-    
+
+    // The index of the coordinate's cell in a flat (row-major) grid.
+    public int GetIndex()
+    {
+        return f_index_row * f_size_grid + f_index_col;
+    }
+
     public void Set(int a_index_row, int a_index_col)
     {
         if (a_index_row < 0 || a_index_row >= f_size_grid)
@@ -0,0 +1,290 @@
+
+package SudokuPackage;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/* Sudoku Corpus
+ * An instance of this class is a read-only, memory-mapped view of a file of sudokus (one per line), from which the
+   sudokus are decoded directly into primitive grids: no String, Scanner or other per-line object is created.
+ * Each line contains the n*n cells of a sudoku in row-major order (e.g. 81 characters for a 9x9 sudoku). The values
+   1 to 9 are written as digits and the values 10 to 35 as letters (A-Z, case-insensitive), and an empty cell is
+   written as '0' or '.'. Whitespace within a line is ignored, as are blank lines.
+ * A single mapping can't exceed Integer.MAX_VALUE bytes, so the file is mapped as a series of regions, each of which
+   ends on a line boundary. Split further divides the regions into chunks (also on line boundaries), each of which is
+   an independent view of the mapping that can be decoded by a different thread.
+ * The mapping remains valid after the file is closed (which happens as soon as it's mapped), and is released when the
+   instance (and its chunks) are garbage-collected.
+
+ * Class Composition:
+     (a). Enums (1)
+     (b). Fields (2)
+         (i). Static Fields (4)
+     (c). Constructors (1)
+     (d). Publics (5)
+         (i). Statics (3)
+     (e). Auxiliaries (1)
+*/
+public class SudokuCorpus
+{
+
+// (a). Enums (1) ======================================================================================================
+
+    /*
+     * An enum to represent the outcome of a call to Decode.
+    */
+    public enum DecodeStatus
+    {
+        Decoded,   // A sudoku was decoded into the grid.
+        Malformed, // A line was consumed, but it isn't a sudoku of the given geometry (the grid is meaningless).
+        End        // There are no more lines.
+    }
+
+
+
+// (b). Fields (2) =====================================================================================================
+
+    /*
+     * The mapped regions of the file, in order; each ends on a line boundary (except, perhaps, the last).
+    */
+    private final List<MappedByteBuffer> f_regions;
+
+    /*
+     * The size of the file (no. of bytes).
+    */
+    private final long f_size;
+
+
+// (b)(i). Static Fields (4) -------------------------------------------------------------------------------------------
+
+    // The maximum size of a region (no. of bytes).
+    private static final int S_BYTES_PER_REGION = Integer.MAX_VALUE;
+
+    // The symbols of the values 1 to 35 (the largest value that can be written as a single character).
+    private static final String S_SYMBOLS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    // The largest value that can be decoded (and encoded): i.e. the largest n of a sudoku in a corpus.
+    public static final int S_MAX_VALUE = S_SYMBOLS.length();
+
+    // The value of each (ASCII) symbol: -1 if it isn't a symbol, and -2 if it's whitespace.
+    private static final byte S_VALUES[] = new byte[128];
+
+    static
+    {
+        Arrays.fill(S_VALUES, (byte)-1);
+
+        S_VALUES[' '] = S_VALUES['\t'] = S_VALUES['\r'] = -2;
+        S_VALUES['0'] = S_VALUES['.'] = SudokuSolver.S_VALUE_EMPTY_CELL;
+
+        for (int i = 0; i < S_SYMBOLS.length(); ++i)
+        {
+            S_VALUES[S_SYMBOLS.charAt(i)] = (byte)(i + 1);
+            S_VALUES[Character.toLowerCase(S_SYMBOLS.charAt(i))] = (byte)(i + 1);
+        }
+
+    }
+
+
+
+// (c). Constructors (1) ===============================================================================================
+
+    /*
+     * Maps the given file.
+
+     * Parameters:
+         > a_file: the file that contains the sudokus (one per line).
+    */
+    public SudokuCorpus(Path a_file)
+        throws IOException
+    {
+        f_regions = new ArrayList<MappedByteBuffer>();
+
+        try (FileChannel l_channel = FileChannel.open(a_file, StandardOpenOption.READ))
+        {
+            f_size = l_channel.size();
+
+            long l_position = 0;
+
+            while (l_position < f_size)
+            {
+                long l_length = Math.min(S_BYTES_PER_REGION, f_size - l_position);
+
+                MappedByteBuffer l_region = l_channel.map(FileChannel.MapMode.READ_ONLY, l_position, l_length);
+
+                // Unless it's the last region, end the region after its last line break.
+                if (l_position + l_length < f_size)
+                {
+                    int l_end = (int)l_length;
+
+                    while (l_end > 0 && l_region.get(l_end - 1) != '\n')
+                    { --l_end; }
+
+                    if (l_end == 0)
+                    { throw new IOException("A line of " + a_file + " is longer than " + S_BYTES_PER_REGION + " bytes."); }
+
+                    l_region.limit(l_end);
+                }
+
+                f_regions.add(l_region);
+                l_position += l_region.limit();
+            }
+
+        }
+
+    }
+
+
+
+// (d). Publics (5) ====================================================================================================
+
+    /*
+     * This method divides the file into chunks of roughly the given size, each of which ends on a line boundary (so that
+       no line is split between chunks).
+     * Each chunk is an independent view of the mapping (with its own position), so the chunks can be decoded
+       concurrently.
+
+     * Parameters:
+         > a_bytes_per_chunk: the minimum size of each chunk (except the last of each region) in bytes.
+
+     * Return Value:
+         > The chunks, in file order.
+    */
+    public List<ByteBuffer> Split(int a_bytes_per_chunk)
+    {
+        if (a_bytes_per_chunk < 1)
+        { throw new IllegalArgumentException("The size of a chunk must be positive."); }
+
+        List<ByteBuffer> l_chunks = new ArrayList<ByteBuffer>();
+
+        for (MappedByteBuffer region : f_regions)
+        {
+            int l_limit = region.limit();
+
+            for (int l_start = 0, l_end; l_start < l_limit; l_start = l_end)
+            {
+                l_end = (int)Math.min((long)l_start + a_bytes_per_chunk, l_limit);
+
+                // Extend the chunk to the end of the line in which it ends.
+                while (l_end < l_limit && region.get(l_end - 1) != '\n')
+                { ++l_end; }
+
+                ByteBuffer l_chunk = region.duplicate();
+                l_chunk.limit(l_end);
+                l_chunk.position(l_start);
+
+                l_chunks.add(l_chunk.slice());
+            }
+
+        }
+
+        return l_chunks;
+    }
+
+    /*
+     * This method returns the size of the file (no. of bytes).
+    */
+    public long GetSize()
+    {
+        return f_size;
+    }
+
+
+// (d)(i). Statics (3) -------------------------------------------------------------------------------------------------
+
+    /*
+     * This method decodes the next (non-blank) line of the given chunk into a_grid, and advances the chunk's position
+       past it.
+
+     * Parameters:
+         > a_chunk: the chunk from which the line is read (from its position).
+         > a_grid: the grid into which the sudoku is decoded (row-major, length n*n).
+         > a_size_grid: the dimension (width/height) of the grid (n).
+
+     * Return Value:
+         > The outcome of the decoding (see DecodeStatus).
+    */
+    public static DecodeStatus Decode(ByteBuffer a_chunk, int[] a_grid, int a_size_grid)
+    {
+        int l_position = a_chunk.position();
+        int l_limit = a_chunk.limit();
+
+        // Skip blank lines (and leading whitespace).
+        while (l_position < l_limit && (a_chunk.get(l_position) == '\n' || ValueOf(a_chunk.get(l_position)) == -2))
+        { ++l_position; }
+
+        if (l_position == l_limit)
+        {
+            a_chunk.position(l_position);
+            return DecodeStatus.End;
+        }
+
+        int l_count = 0;
+        boolean l_valid = true;
+
+        for (; l_position < l_limit; ++l_position)
+        {
+            byte l_symbol = a_chunk.get(l_position);
+
+            if (l_symbol == '\n')
+            { break; }
+
+            int l_value = ValueOf(l_symbol);
+
+            if (l_value == -2)
+            { continue; }
+
+            if (l_value < 0 || l_value > a_size_grid || l_count == a_grid.length)
+            { l_valid = false; }
+            else
+            { a_grid[l_count++] = l_value; }
+        }
+
+        a_chunk.position(l_position);
+
+        return l_valid && l_count == a_grid.length ? DecodeStatus.Decoded : DecodeStatus.Malformed;
+    }
+
+    /*
+     * This method returns the value represented by the given symbol.
+
+     * Return Value:
+         > The value (1 to 35), S_VALUE_EMPTY_CELL for '0' or '.', or -1 if the symbol isn't recognised.
+    */
+    public static int ValueOfSymbol(char a_symbol)
+    {
+        int l_value = a_symbol < S_VALUES.length ? S_VALUES[a_symbol] : -1;
+
+        return l_value == -2 ? -1 : l_value;
+    }
+
+    /*
+     * This method returns the symbol that represents the given value (1 to 35).
+    */
+    public static char SymbolOfValue(int a_value)
+    {
+        return S_SYMBOLS.charAt(a_value - 1);
+    }
+
+
+
+// (e). Auxiliaries (1) ================================================================================================
+
+    /* Auxiliary of Decode
+     * Returns the value of the given (ASCII) symbol: -1 if it isn't a symbol, and -2 if it's whitespace.
+    */
+    private static int ValueOf(byte a_symbol)
+    {
+        return a_symbol < 0 ? -1 : S_VALUES[a_symbol];
+    }
+
+
+}
@@ -3,6 +3,8 @@ package SudokuPackage;
 
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Color;
@@ -11,6 +13,11 @@ import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JScrollBar;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import Utils.ButtonMaker;
 
@@ -19,13 +26,14 @@ import Utils.ButtonMaker;
  * This class encapsulates the GUI and execution of the program. 
 
  * Class Composition:
-     (a). Fields (11)
+     (a). Fields (19)
          (i). Static Fields (3)
      (b). Constructors (1)
-     (c). Publics (3)
+     (c). Publics (4)
          (i). Accessors (2)
-     (d). Event Handlers (4)
-     (e). Nested Classes (1)
+     (d). Event Handlers (8)
+     (e). Auxiliaries (1)
+     (f). Nested Classes (1)
          (i). Inner Classes (1)
 
 */
@@ -34,7 +42,7 @@ public class SudokuFrame
         implements Runnable
 {
     
-// (a). Fields (11) ====================================================================================================
+// (a). Fields (19) ====================================================================================================
     
     /*
      * The sudoku grid.
@@ -61,12 +69,26 @@ public class SudokuFrame
     */
     private JScrollBar f_scr_solve_rate;
     
+    /*
+     * The value of this scroll-bar is the step of the (recorded) search that's displayed: it follows the replay, and 
+       moving it displays the chosen step (from which the replay, if any, continues).
+    */
+    private JScrollBar f_scr_step;
+    
     /*
      * When this checkbox is checked, the process of solving the sudoku can only progress by the user clicking 
        f_btn_step, allowing them to go through the process step-by-step.
     */
     private JCheckBox f_chk_step;
     
+    /*
+     * The value of f_scr_solve_rate, and the status of f_chk_step, which are kept by their event handlers so that the 
+       solving thread can read them (see GetSortRate and IsStepping) without calling the components off the 
+       event-dispatching thread.
+    */
+    private volatile int f_rate_solve;
+    private volatile boolean f_is_stepping;
+    
     /*
      * The string of the file in which the sudoku is stored. 
     */
@@ -77,6 +99,35 @@ public class SudokuFrame
     */
     private Thread f_thread_solve;
     
+    /*
+     * The trace of the latest search (see SudokuBoard.SolveTraced), or null if there's none.
+     * It's only accessed on the event-dispatching thread (the solving thread uses its own reference).
+    */
+    private SudokuTrace f_trace;
+    
+    /*
+     * The no. of steps of f_trace that are displayed.
+    */
+    private volatile int f_index_step;
+    
+    /*
+     * The step of f_trace that the user has moved f_scr_step to during the replay (or -1 if they haven't), which the
+       replay jumps to before its next step.
+    */
+    private final AtomicInteger f_index_seek = new AtomicInteger(-1);
+    
+    /*
+     * The timer that moves f_scr_step to the step being replayed, at most SudokuBoard.S_RATE_FRAME times a second 
+       (rather than per step, from the solving thread).
+    */
+    private Timer f_timer_step;
+    
+    /*
+     * A flag that, when true, indicates that f_scr_step is being moved by the program (see SetStep), rather than by the
+       user.
+    */
+    private boolean f_is_setting_step;
+    
     
 // (a)(i). Static Fields (3) -------------------------------------------------------------------------------------------
     
@@ -103,8 +154,10 @@ public class SudokuFrame
          > a_width_box: the width (no. of cells) of each box in the sudoku board.
          > a_height_box: the height (no. of cells) of each box in the sudoku board.
          > a_size_cell: the dimension (n*n) of each cell in the sudoku board (in pixels).
+         > a_directory_store: the directory in which the solutions are stored between runs (null for none).
     */
-    public SudokuFrame(String a_title, String a_file_sudoku, int a_width_box, int a_height_box, int a_size_cell)
+    public SudokuFrame(String a_title, String a_file_sudoku, int a_width_box, int a_height_box, int a_size_cell, 
+                       Path a_directory_store)
     {
         // Call base class' constructor.
         super(a_title);
@@ -115,8 +168,19 @@ public class SudokuFrame
         // Make sure we have nice window decorations. Doesn't seem to do anything.
         JFrame.setDefaultLookAndFeelDecorated(true);
         
-        // Ensure the frame exits when the user closes the window (i.e. clicks the 'cross' button).
+        // Ensure the frame exits when the user closes the window (i.e. clicks the 'cross' button); it's disposed first,
+        // so that the board's store is flushed and closed.
         super.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        super.addWindowListener(
+            new WindowAdapter()
+            {
+                @Override
+                public void windowClosing(WindowEvent e)
+                {
+                    EvtHnd_Close();
+                }
+            }
+        );
         
         // Ensure that the user can't change the frame's size.
         super.setResizable(false);
@@ -138,7 +202,7 @@ public class SudokuFrame
         
         // The dimensions of the sudoku.
         f_sudoku = new SudokuBoard(a_width_box, a_height_box, a_size_cell, Color.BLACK, Color.WHITE, new Color(255,215,0),
-                                   Color.GREEN, Color.RED, Color.GRAY, Color.BLACK, this);
+                                   Color.GREEN, Color.RED, Color.GRAY, Color.BLACK, this, a_directory_store);
         f_sudoku.SetFromFile(f_file_sudoku);
         
         
@@ -155,9 +219,19 @@ public class SudokuFrame
         
         f_scr_solve_rate = new JScrollBar(JScrollBar.HORIZONTAL, 100, S_INCREMENT_SOLVE_RATE, S_MAX_SOLVE_RATE, 
                                           S_MIN_SOLVE_RATE);
+        f_scr_solve_rate.addAdjustmentListener(e -> EvtHnd_SolveRate());
+        f_rate_solve = f_scr_solve_rate.getValue();
+        
+        f_scr_step = new JScrollBar(JScrollBar.HORIZONTAL, 0, 0, 0, 0);
+        f_scr_step.addAdjustmentListener(e -> EvtHnd_Scrub());
+        f_scr_step.setEnabled(false);
+        
+        f_timer_step = new Timer(1000 / SudokuBoard.S_RATE_FRAME, e -> EvtHnd_TimerStep());
+        f_timer_step.start();
         
         f_chk_step = new JCheckBox("Step", false);
         f_chk_step.addActionListener(e -> EvtHnd_StepCheckBox());
+        f_is_stepping = false;
         
         
         // Add the GUI elements to the frame.
@@ -177,8 +251,11 @@ public class SudokuFrame
         l_constraints.gridx = 0; l_constraints.gridy = 4; // (0,4)
         super.add(f_scr_solve_rate, l_constraints);
         
-        l_constraints.anchor = GridBagConstraints.FIRST_LINE_START;
         l_constraints.gridx = 0; l_constraints.gridy = 5; // (0,5)
+        super.add(f_scr_step, l_constraints);
+        
+        l_constraints.anchor = GridBagConstraints.FIRST_LINE_START;
+        l_constraints.gridx = 0; l_constraints.gridy = 6; // (0,6)
         super.add(f_chk_step, l_constraints);
         
         
@@ -195,7 +272,7 @@ public class SudokuFrame
     
     
     
-// (c). Publics (3) ====================================================================================================
+// (c). Publics (4) ====================================================================================================
     
     /* Implementation of Runnable
      * This is the code that executes when f_thread_solve is instantiated and run.
@@ -206,42 +283,120 @@ public class SudokuFrame
         // Ensure the sudoku has no guesses: i.e. should only be the clues.
         f_sudoku.RemoveGuesses();
         
-        // Solve the sudoku.
-        f_sudoku.Solve();
+        // Solve the sudoku (at full speed), recording each step of the search.
+        SudokuTrace l_trace = f_sudoku.SolveTraced();
         
-        // Return the controls.
-        f_btn_solve.setEnabled(true);
-        f_btn_reset.setEnabled(true);
+        if (l_trace != null)
+        {
+            f_index_step = 0;
+            f_index_seek.set(-1);
+            
+            SwingUtilities.invokeLater(
+                () ->
+                {
+                    f_trace = l_trace;
+                    SetStep(0, l_trace.GetCount());
+                    f_scr_step.setEnabled(true);
+                }
+            );
+            
+            // Visualise the search by replaying its steps, at the rate set by f_scr_solve_rate (or f_btn_step); 
+            // f_scr_step follows the replay (see f_timer_step).
+            while (f_index_step < l_trace.GetCount())
+            {
+                // If the user has moved f_scr_step, jump to the chosen step.
+                int l_index_seek = f_index_seek.getAndSet(-1);
+                
+                if (l_index_seek != -1)
+                {
+                    f_index_step = l_index_seek;
+                    f_sudoku.ShowStep(l_trace, l_index_seek);
+                    continue;
+                }
+                
+                f_sudoku.Replay(l_trace.Get(f_index_step));
+                
+                ++f_index_step;
+            }
+            
+            // If the search was stopped (as its trace was full), the sudoku is solved headlessly instead.
+            if (l_trace.IsTruncated())
+            {
+                f_sudoku.RemoveGuesses();
+                f_sudoku.Solve();
+            }
+            
+        }
         
-        // Ensure that the frame has the focus so that the keyboard controls work.
-        super.requestFocusInWindow();
+        // The controls are changed on the event-dispatching thread (as is every Swing component).
+        SwingUtilities.invokeLater(
+            () ->
+            {
+                // Return the controls.
+                f_btn_solve.setEnabled(true);
+                f_btn_reset.setEnabled(true);
+                
+                // Delete the thread.
+                f_thread_solve = null;
+                
+                if (f_trace != null)
+                {
+                    SetStep(f_index_step, f_trace.GetCount());
+                    
+                    // If the user moved f_scr_step as the replay finished, display the chosen step.
+                    int l_index_seek = f_index_seek.getAndSet(-1);
+                    
+                    if (l_index_seek != -1)
+                    {
+                        f_index_step = l_index_seek;
+                        SetStep(l_index_seek, f_trace.GetCount());
+                        f_sudoku.ShowStep(f_trace, l_index_seek);
+                    }
+                    
+                }
+                
+                // Ensure that the frame has the focus so that the keyboard controls work.
+                super.requestFocusInWindow();
+            }
+        );
+        
+    }
+    
+    /*
+     * This method disposes of the frame, and stops the timers of the frame and its board (which would otherwise keep 
+       them alive).
+    */
+    @Override
+    public void dispose()
+    {
+        f_timer_step.stop();
+        f_sudoku.Dispose();
         
-        // Delete the thread.
-        f_thread_solve = null;
+        super.dispose();
     }
     
     
 // (c)(i). Accessors (2) -----------------------------------------------------------------------------------------------
     
-    /* Accessor of f_scr_solve_rate
-     * Returns the value of the scroll-bar f_scr_solve_rate.
+    /* Accessor of f_rate_solve
+     * Returns the value of the scroll-bar f_scr_solve_rate (which may be called from any thread).
     */
     public int GetSortRate()
     {
-        return f_scr_solve_rate.getValue();
+        return f_rate_solve;
     }
     
-    /* Accessor of f_chk_step
-     * Returns the status of the checkbox f_chk_step.
+    /* Accessor of f_is_stepping
+     * Returns the status of the checkbox f_chk_step (which may be called from any thread).
     */
     public boolean IsStepping()
     {
-        return f_chk_step.isSelected();
+        return f_is_stepping;
     }
     
     
     
-// (d). Event Handlers (4) =============================================================================================
+// (d). Event Handlers (8) =============================================================================================
     
     /* Event Handler of f_btn_solve
          *
@@ -254,6 +409,9 @@ public class SudokuFrame
         // Shouldn't be able to reset the array mid-solve.
         f_btn_reset.setEnabled(false);
         
+        // The previous search (if any) can't be shown while the next one is performed.
+        f_scr_step.setEnabled(false);
+        
         f_thread_solve = new Thread(this);
         f_thread_solve.start();
     }
@@ -266,6 +424,12 @@ public class SudokuFrame
        // Remove all guesses from the sudoku board.
        f_sudoku.RemoveGuesses();
        
+       // Discard the previous search (if any).
+       f_trace = null;
+       f_index_step = 0;
+       SetStep(0, 0);
+       f_scr_step.setEnabled(false);
+       
        // Ensure that the frame has the focus so that the keyboard controls work.
        super.requestFocusInWindow();
    }
@@ -291,6 +455,46 @@ public class SudokuFrame
         
     }
     
+    /* Event Handler of f_scr_step
+     * Displays the chosen step of the latest search: if it's being replayed, the replay jumps to (and continues from) 
+       the step; otherwise, the step is displayed straight away.
+    */
+    private void EvtHnd_Scrub()
+    {
+        int l_index = f_scr_step.getValue();
+        
+        // The scroll-bar is also moved by the program (to follow the replay), which isn't a jump.
+        if (f_trace == null || f_is_setting_step)
+        { return; }
+        
+        if (f_thread_solve != null)
+        {
+            f_index_seek.set(l_index);
+            
+            synchronized (this)
+            {
+                // Awake the thread (if it's waiting for f_btn_step) so that it jumps straight away.
+                this.notifyAll();
+            }
+            
+        }
+        else
+        {
+            f_index_step = l_index;
+            f_sudoku.ShowStep(f_trace, l_index);
+        }
+        
+    }
+    
+    /* Event Handler of f_timer_step
+     * Moves f_scr_step to the step being replayed (unless the user is dragging it).
+    */
+    private void EvtHnd_TimerStep()
+    {
+        if (f_thread_solve != null && f_trace != null && !f_scr_step.getValueIsAdjusting())
+        { SetStep(f_index_step, f_trace.GetCount()); }
+    }
+    
     /* Event Handler of f_chk_step
      *
     */
@@ -299,25 +503,59 @@ public class SudokuFrame
         // The step button should only be available when in the 'step' mode.
         f_btn_step.setEnabled(f_chk_step.isSelected());
         
-        // If the checkbox was just unchecked and the sorting thread is active.
-        if (!f_chk_step.isSelected() && f_thread_solve != null)
+        // The status is changed while holding the lock on which the solving thread waits (see 
+        // SudokuBoard.ThreadControl), so that the thread can't miss the notification below.
+        synchronized (this)
         {
-            synchronized (this)
+            f_is_stepping = f_chk_step.isSelected();
+            
+            // If the checkbox was just unchecked and the sorting thread is active.
+            if (!f_is_stepping && f_thread_solve != null)
             {
                 // Awake the thread so that the sorting can continue.
                 this.notifyAll();
             }
-
+            
         }
         
     }
     
+    /* Event Handler of f_scr_solve_rate
+     *
+    */
+    private void EvtHnd_SolveRate()
+    {
+        f_rate_solve = f_scr_solve_rate.getValue();
+    }
+    
+    /* Event Handler of the frame's closing
+     * Disposes of the frame (before the program exits).
+    */
+    private void EvtHnd_Close()
+    {
+        dispose();
+    }
+    
+    
+    
+// (e). Auxiliaries (1) ================================================================================================
+    
+    /* Auxiliary of run, EvtHnd_Reset, EvtHnd_TimerStep
+     * Moves f_scr_step to the given step (of the given no. of steps), without it being taken as a jump by the user.
+    */
+    private void SetStep(int a_index, int a_count)
+    {
+        f_is_setting_step = true;
+        f_scr_step.setValues(a_index, 0, 0, a_count);
+        f_is_setting_step = false;
+    }
+    
     
     
-// (e). Nested Classes (1) =============================================================================================
+// (f). Nested Classes (1) =============================================================================================
     
     
-// (e)(i). Inner Classes (1) -------------------------------------------------------------------------------------------
+// (f)(i). Inner Classes (1) -------------------------------------------------------------------------------------------
      
      /* Keyboard Controls
       * An instance of this inner class is what handles the keyboard input.
@@ -0,0 +1,280 @@
+
+package SudokuPackage;
+
+
+/* Sudoku Geometry
+ * An instance of this class contains the (immutable) lookup tables of a grid geometry, so that the solvers and
+   validators don't recompute rows, columns, boxes and peers with division and modulo arithmetic in their inner loops.
+ * The cells are indexed row-major (the cell at (row, col) is at index row * n + col), and the units are indexed as in
+   SudokuSolver: the rows are 0 to n - 1, the columns n to 2n - 1, and the boxes 2n to 3n - 1 (the boxes are ordered
+   row-major).
+ * Every table is a flat int array:
+     > The row, column and box of each cell.
+     > The cells of each unit: n per unit (in row-major order).
+     > The peers of each cell (the other cells that share a row, column or box with it): f_count_peers per cell (its row,
+       then its column, then the rest of its box).
+ * As a geometry is immutable, there's only one instance of each, which is shared by every solver and board (see Of).
+
+ * Class Composition:
+     (a). Fields (10)
+         (i). Static Fields (1)
+     (b). Constructors (1)
+     (c). Publics (9)
+         (i). Statics (1)
+         (ii). Accessors (4)
+     (d). Auxiliaries (5)
+*/
+public final class SudokuGeometry
+{
+
+// (a). Fields (10) ====================================================================================================
+
+    /*
+     * The width and height of each box (no. of cells).
+    */
+    private final int f_width_box;
+    private final int f_height_box;
+
+    /*
+     * The dimension (width/height) of the grid: i.e. f_width_box * f_height_box.
+    */
+    private final int f_size_grid;
+
+    /*
+     * The no. of peers of each cell.
+    */
+    private final int f_count_peers;
+
+    /*
+     * The row, column and box of each cell.
+    */
+    private final int f_row_of[];
+    private final int f_col_of[];
+    private final int f_box_of[];
+
+    /*
+     * The cells of each unit (n per unit).
+    */
+    private final int f_unit_cells[];
+
+    /*
+     * The peers of each cell (f_count_peers per cell).
+    */
+    private final int f_peers[];
+
+
+// (a)(i). Static Fields (1) -------------------------------------------------------------------------------------------
+
+    // The geometry of each pair of box dimensions (created on first use; see Of).
+    private static final SudokuGeometry S_GEOMETRIES[][] = new SudokuGeometry[Long.SIZE][Long.SIZE];
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    private SudokuGeometry(int a_width_box, int a_height_box)
+    {
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_size_grid = a_width_box * a_height_box;
+
+        int l_count_cells = f_size_grid * f_size_grid;
+
+        // The cells of the row and column (excl. the cell), and those of the box that aren't in either.
+        f_count_peers = 2 * (f_size_grid - 1) + (a_width_box - 1) * (a_height_box - 1);
+
+        f_row_of = new int[l_count_cells];
+        f_col_of = new int[l_count_cells];
+        f_box_of = new int[l_count_cells];
+        f_unit_cells = new int[3 * f_size_grid * f_size_grid];
+        f_peers = new int[f_count_peers * l_count_cells];
+
+        int[] l_count_unit = new int[3 * f_size_grid];
+
+        for (int cell = 0; cell < l_count_cells; ++cell)
+        {
+            int l_row = cell / f_size_grid;
+            int l_col = cell % f_size_grid;
+            int l_box = (l_row / a_height_box) * a_height_box + l_col / a_width_box;
+
+            f_row_of[cell] = l_row;
+            f_col_of[cell] = l_col;
+            f_box_of[cell] = l_box;
+
+            // As the cells are visited in row-major order, each unit's cells are too.
+            for (int l_unit : new int[] { l_row, f_size_grid + l_col, 2 * f_size_grid + l_box })
+            {
+                f_unit_cells[l_unit * f_size_grid + l_count_unit[l_unit]++] = cell;
+            }
+
+        }
+
+        for (int cell = 0; cell < l_count_cells; ++cell)
+        {
+            int l_row = f_row_of[cell];
+            int l_col = f_col_of[cell];
+
+            int l_position = cell * f_count_peers;
+
+            for (int col = 0; col < f_size_grid; ++col)
+            {
+                if (col != l_col)
+                { f_peers[l_position++] = l_row * f_size_grid + col; }
+            }
+
+            for (int row = 0; row < f_size_grid; ++row)
+            {
+                if (row != l_row)
+                { f_peers[l_position++] = row * f_size_grid + l_col; }
+            }
+
+            for (int i = 0; i < f_size_grid; ++i)
+            {
+                int l_peer = f_unit_cells[(2 * f_size_grid + f_box_of[cell]) * f_size_grid + i];
+
+                if (f_row_of[l_peer] != l_row && f_col_of[l_peer] != l_col)
+                { f_peers[l_position++] = l_peer; }
+            }
+
+        }
+
+    }
+
+
+
+// (c). Publics (9) ====================================================================================================
+
+    /*
+     * Returns the row of the given cell.
+    */
+    public int RowOf(int a_cell)
+    {
+        return f_row_of[a_cell];
+    }
+
+    /*
+     * Returns the column of the given cell.
+    */
+    public int ColOf(int a_cell)
+    {
+        return f_col_of[a_cell];
+    }
+
+    /*
+     * Returns the box (row-major) of the given cell.
+    */
+    public int BoxOf(int a_cell)
+    {
+        return f_box_of[a_cell];
+    }
+
+    /*
+     * This method returns whether the value of the given cell of the grid is consistent with the values of its peers
+       (an empty cell is always consistent).
+
+     * Parameters:
+         > a_grid: the grid (row-major, length n*n).
+         > a_cell: the index of the cell.
+    */
+    public boolean IsCellValid(int[] a_grid, int a_cell)
+    {
+        int l_value = a_grid[a_cell];
+
+        if (l_value == SudokuSolver.S_VALUE_EMPTY_CELL)
+        { return true; }
+
+        for (int i = a_cell * f_count_peers, end = i + f_count_peers; i < end; ++i)
+        {
+            if (a_grid[f_peers[i]] == l_value)
+            { return false; }
+        }
+
+        return true;
+    }
+
+
+// (c)(i). Statics (1) -------------------------------------------------------------------------------------------------
+
+    /*
+     * This method returns the geometry of the given box dimensions (which is created on first use, and shared
+       thereafter).
+    */
+    public static SudokuGeometry Of(int a_width_box, int a_height_box)
+    {
+        if (a_width_box < 1 || a_height_box < 1 || a_width_box * a_height_box > Long.SIZE - 1)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        synchronized (S_GEOMETRIES)
+        {
+            if (S_GEOMETRIES[a_width_box][a_height_box] == null)
+            { S_GEOMETRIES[a_width_box][a_height_box] = new SudokuGeometry(a_width_box, a_height_box); }
+
+            return S_GEOMETRIES[a_width_box][a_height_box];
+        }
+
+    }
+
+
+// (c)(ii). Accessors (4) ----------------------------------------------------------------------------------------------
+
+    public int GetWidthBox()
+    {
+        return f_width_box;
+    }
+
+    public int GetHeightBox()
+    {
+        return f_height_box;
+    }
+
+    public int GetSizeGrid()
+    {
+        return f_size_grid;
+    }
+
+    public int GetCountPeers()
+    {
+        return f_count_peers;
+    }
+
+
+
+// (d). Auxiliaries (5) ================================================================================================
+
+    /* Auxiliary of the solvers
+     * The following methods return the tables themselves (not copies), so that the solvers' inner loops can index them
+       directly; as the tables are shared, they must not be modified.
+    */
+
+    int[] RowTable()
+    {
+        return f_row_of;
+    }
+
+    int[] ColTable()
+    {
+        return f_col_of;
+    }
+
+    int[] BoxTable()
+    {
+        return f_box_of;
+    }
+
+    int[] UnitCellsTable()
+    {
+        return f_unit_cells;
+    }
+
+    int[] PeersTable()
+    {
+        return f_peers;
+    }
+
+
+}
@@ -0,0 +1,450 @@
+
+package SudokuPackage;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+
+/* Sudoku Packed Format
+ * An instance of this class reads and writes a compact binary file of sudokus (puzzles or solutions) of a given
+   geometry, straight from/to ByteBuffers.
+ * The file starts with a header of S_SIZE_HEADER bytes:
+     > bytes 0-3: the magic number ('SDKP' in ASCII).
+     > byte 4: the version of the format (S_VERSION).
+     > byte 5: the width of a box (no. of cells).
+     > byte 6: the height of a box (no. of cells).
+     > byte 7: flags (S_FLAG_CHECKSUM: each record is followed by a checksum).
+ * The header is followed by the records, one per sudoku, each of which occupies exactly f_stride bytes (so the record
+   at index i starts at S_SIZE_HEADER + i * f_stride, and the no. of records is implied by the size of the file).
+ * A record contains the n*n values of the cells (row-major; S_VALUE_EMPTY_CELL for an empty cell), each packed into
+   f_bits_per_cell = ceil(log2(n + 1)) bits, least significant bit first, and padded to a whole no. of bytes: e.g. a
+   9x9 sudoku occupies 41 bytes. If checksums are enabled, the packed values are followed by their CRC-32C (4 bytes,
+   little-endian).
+ * An instance isn't thread-safe (it reuses its checksum calculator); use one instance per thread.
+
+ * Class Composition:
+     (a). Fields (7)
+         (i). Static Fields (5)
+     (b). Constructors (1)
+     (c). Publics (12)
+         (i). Statics (3)
+         (ii). Accessors (4)
+     (d). Auxiliaries (4)
+*/
+public class SudokuPackedFormat
+{
+
+// (a). Fields (7) =====================================================================================================
+
+    /*
+     * The width and height of each box (no. of cells).
+    */
+    private final int f_width_box;
+    private final int f_height_box;
+
+    /*
+     * The no. of cells in a grid (n*n).
+    */
+    private final int f_count_cells;
+
+    /*
+     * The no. of bits that each cell's value is packed into.
+    */
+    private final int f_bits_per_cell;
+
+    /*
+     * A flag that, when true, indicates that each record is followed by a checksum.
+    */
+    private final boolean f_checksum;
+
+    /*
+     * The size of each record (no. of bytes), incl. its checksum.
+    */
+    private final int f_stride;
+
+    /*
+     * The calculator of the records' checksums.
+    */
+    private final CRC32C f_crc;
+
+
+// (a)(i). Static Fields (5) -------------------------------------------------------------------------------------------
+
+    // The magic number that identifies the format ('SDKP' in ASCII, read as a little-endian int).
+    private static final int S_MAGIC = 'S' | 'D' << 8 | 'K' << 16 | 'P' << 24;
+
+    // The version of the format.
+    private static final byte S_VERSION = 1;
+
+    // The size of the header (no. of bytes).
+    public static final int S_SIZE_HEADER = 8;
+
+    // The flag that indicates that each record is followed by a checksum.
+    private static final byte S_FLAG_CHECKSUM = 1;
+
+    // The size of a checksum (no. of bytes).
+    private static final int S_SIZE_CHECKSUM = Integer.BYTES;
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_checksum: whether each record is followed by a checksum.
+    */
+    public SudokuPackedFormat(int a_width_box, int a_height_box, boolean a_checksum)
+    {
+        if (a_width_box < 1 || a_height_box < 1 || a_width_box * a_height_box > Long.SIZE - 1)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+
+        int l_size_grid = a_width_box * a_height_box;
+
+        f_count_cells = l_size_grid * l_size_grid;
+        f_bits_per_cell = Integer.SIZE - Integer.numberOfLeadingZeros(l_size_grid);
+        f_checksum = a_checksum;
+        f_stride = (f_count_cells * f_bits_per_cell + Byte.SIZE - 1) / Byte.SIZE + (a_checksum ? S_SIZE_CHECKSUM : 0);
+
+        f_crc = new CRC32C();
+    }
+
+
+
+// (c). Publics (12) ===================================================================================================
+
+    /*
+     * This method writes the header at the buffer's position (and advances it).
+    */
+    public void WriteHeader(ByteBuffer a_buffer)
+    {
+        PutInt(a_buffer, S_MAGIC);
+        a_buffer.put(S_VERSION);
+        a_buffer.put((byte)f_width_box);
+        a_buffer.put((byte)f_height_box);
+        a_buffer.put(f_checksum ? S_FLAG_CHECKSUM : 0);
+    }
+
+    /*
+     * This method packs the given grid into a record at the buffer's position (and advances it).
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); each value must be from 0 (empty) to n.
+         > a_buffer: the buffer into which the record is written (at least f_stride bytes must remain); if a value is 
+                     invalid, nothing is written.
+    */
+    public void Write(int[] a_grid, ByteBuffer a_buffer)
+    {
+        if (a_grid.length != f_count_cells)
+        { throw new IllegalArgumentException("The grid must contain " + f_count_cells + " cells."); }
+
+        int l_size_grid = f_width_box * f_height_box;
+
+        // A value outside 0 to n would overflow into the bits of the next cell(s).
+        for (int value : a_grid)
+        {
+            if (value < 0 || value > l_size_grid)
+            { throw new IllegalArgumentException("The value " + value + " is outside 0 to " + l_size_grid + "."); }
+        }
+
+        int l_start = a_buffer.position();
+
+        // The bits that have yet to be written (least significant first).
+        long l_bits = 0;
+        int l_count_bits = 0;
+
+        for (int value : a_grid)
+        {
+            l_bits |= (long)value << l_count_bits;
+            l_count_bits += f_bits_per_cell;
+
+            while (l_count_bits >= Byte.SIZE)
+            {
+                a_buffer.put((byte)l_bits);
+                l_bits >>>= Byte.SIZE;
+                l_count_bits -= Byte.SIZE;
+            }
+
+        }
+
+        if (l_count_bits > 0)
+        { a_buffer.put((byte)l_bits); }
+
+        if (f_checksum)
+        { PutInt(a_buffer, Checksum(a_buffer, l_start)); }
+    }
+
+    /*
+     * This method unpacks the record at the buffer's position into a_grid (and advances the position past it).
+
+     * Parameters:
+         > a_buffer: the buffer from which the record is read.
+         > a_grid: the grid into which the values are unpacked (row-major, length n*n).
+
+     * Return Value:
+         > A boolean corresponding to whether the record is intact: false if its checksum doesn't match, or if a value
+           exceeds n (a_grid is meaningless in this case); always true for the former if checksums are disabled.
+    */
+    public boolean Read(ByteBuffer a_buffer, int[] a_grid)
+    {
+        if (a_grid.length != f_count_cells)
+        { throw new IllegalArgumentException("The grid must contain " + f_count_cells + " cells."); }
+
+        int l_start = a_buffer.position();
+        int l_size_grid = f_width_box * f_height_box;
+        int l_mask = (1 << f_bits_per_cell) - 1;
+
+        boolean l_valid = true;
+
+        long l_bits = 0;
+        int l_count_bits = 0;
+
+        for (int i = 0; i < f_count_cells; ++i)
+        {
+            while (l_count_bits < f_bits_per_cell)
+            {
+                l_bits |= (a_buffer.get() & 0xFFL) << l_count_bits;
+                l_count_bits += Byte.SIZE;
+            }
+
+            a_grid[i] = (int)l_bits & l_mask;
+            l_bits >>>= f_bits_per_cell;
+            l_count_bits -= f_bits_per_cell;
+
+            l_valid &= a_grid[i] <= l_size_grid;
+        }
+
+        if (f_checksum)
+        {
+            int l_checksum = Checksum(a_buffer, l_start);
+
+            l_valid &= GetInt(a_buffer) == l_checksum;
+        }
+
+        return l_valid;
+    }
+
+    /*
+     * This method unpacks the record at the given index of a file (random access); the buffer's position is unchanged.
+
+     * Parameters:
+         > a_file: the (entire) file, incl. its header, starting at index 0 of the buffer.
+         > a_index: the index of the record.
+         > a_grid: the grid into which the values are unpacked (row-major, length n*n).
+
+     * Return Value:
+         > See Read.
+    */
+    public boolean Read(ByteBuffer a_file, int a_index, int[] a_grid)
+    {
+        if (a_index < 0 || a_index >= GetCountRecords(a_file))
+        { throw new IndexOutOfBoundsException("There's no record at index " + a_index + "."); }
+
+        ByteBuffer l_view = a_file.duplicate();
+        l_view.position(S_SIZE_HEADER + a_index * f_stride);
+
+        return Read(l_view, a_grid);
+    }
+
+    /*
+     * This method returns the no. of (whole) records in the given file.
+
+     * Parameters:
+         > a_file: the (entire) file, incl. its header, starting at index 0 of the buffer.
+    */
+    public int GetCountRecords(ByteBuffer a_file)
+    {
+        return Math.max(a_file.limit() - S_SIZE_HEADER, 0) / f_stride;
+    }
+
+
+// (c)(i). Statics (3) -------------------------------------------------------------------------------------------------
+
+    /*
+     * This method reads the header at the buffer's position (and advances it).
+
+     * Return Value:
+         > An instance that reads (and writes) records of the geometry and flags described by the header.
+    */
+    public static SudokuPackedFormat ReadHeader(ByteBuffer a_buffer)
+    {
+        if (a_buffer.remaining() < S_SIZE_HEADER || GetInt(a_buffer) != S_MAGIC)
+        { throw new IllegalArgumentException("The buffer doesn't start with a packed sudoku header."); }
+
+        byte l_version = a_buffer.get();
+
+        if (l_version != S_VERSION)
+        { throw new IllegalArgumentException("Version " + l_version + " of the packed format isn't supported."); }
+
+        int l_width_box = a_buffer.get();
+        int l_height_box = a_buffer.get();
+        byte l_flags = a_buffer.get();
+
+        return new SudokuPackedFormat(l_width_box, l_height_box, (l_flags & S_FLAG_CHECKSUM) != 0);
+    }
+
+    /*
+     * Returns whether the given file starts with a packed sudoku header (i.e. its magic number).
+    */
+    public static boolean IsPacked(Path a_file)
+        throws IOException
+    {
+        ByteBuffer l_magic = ByteBuffer.allocate(Integer.BYTES);
+
+        try (FileChannel l_channel = FileChannel.open(a_file, StandardOpenOption.READ))
+        {
+            while (l_magic.hasRemaining() && l_channel.read(l_magic) >= 0)
+            { }
+        }
+
+        l_magic.flip();
+
+        return l_magic.remaining() == Integer.BYTES && GetInt(l_magic) == S_MAGIC;
+    }
+
+    /*
+     * This method converts a text file of sudokus (one per line; see SudokuCorpus) to the packed format.
+     * Malformed lines are skipped.
+
+     * Parameters:
+         > a_input: the text file.
+         > a_output: the packed file (created or overwritten).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_checksum: whether each record is followed by a checksum.
+
+     * Return Value:
+         > The no. of records written.
+    */
+    public static int Pack(Path a_input, Path a_output, int a_width_box, int a_height_box, boolean a_checksum)
+        throws IOException
+    {
+        SudokuPackedFormat l_format = new SudokuPackedFormat(a_width_box, a_height_box, a_checksum);
+
+        int[] l_grid = new int[l_format.f_count_cells];
+        int l_count = 0;
+
+        ByteBuffer l_buffer = ByteBuffer.allocateDirect(Math.max(1 << 16, l_format.f_stride));
+
+        try (FileChannel l_channel = FileChannel.open(a_output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            l_format.WriteHeader(l_buffer);
+
+            for (ByteBuffer chunk : new SudokuCorpus(a_input).Split(1 << 20))
+            {
+                SudokuCorpus.DecodeStatus l_status;
+
+                while ((l_status = SudokuCorpus.Decode(chunk, l_grid, a_width_box * a_height_box)) !=
+                       SudokuCorpus.DecodeStatus.End)
+                {
+                    if (l_status != SudokuCorpus.DecodeStatus.Decoded)
+                    { continue; }
+
+                    if (l_buffer.remaining() < l_format.f_stride)
+                    { Flush(l_channel, l_buffer); }
+
+                    l_format.Write(l_grid, l_buffer);
+                    ++l_count;
+                }
+
+            }
+
+            Flush(l_channel, l_buffer);
+        }
+
+        return l_count;
+    }
+
+
+// (c)(ii). Accessors (4) ----------------------------------------------------------------------------------------------
+
+    public int GetWidthBox()
+    {
+        return f_width_box;
+    }
+
+    public int GetHeightBox()
+    {
+        return f_height_box;
+    }
+
+    /*
+     * Returns the size of each record (no. of bytes), incl. its checksum.
+    */
+    public int GetStride()
+    {
+        return f_stride;
+    }
+
+    public boolean HasChecksum()
+    {
+        return f_checksum;
+    }
+
+
+
+// (d). Auxiliaries (4) ================================================================================================
+
+    /* Auxiliary of Write, Read
+     * Returns the checksum of the bytes of the buffer from a_start to its position (exclusive).
+    */
+    private int Checksum(ByteBuffer a_buffer, int a_start)
+    {
+        ByteBuffer l_view = a_buffer.duplicate();
+        l_view.limit(a_buffer.position());
+        l_view.position(a_start);
+
+        f_crc.reset();
+        f_crc.update(l_view);
+
+        return (int)f_crc.getValue();
+    }
+
+    /* Auxiliary of WriteHeader, Write
+     * Writes the given int (little-endian) at the buffer's position (regardless of the buffer's byte order).
+    */
+    private static void PutInt(ByteBuffer a_buffer, int a_value)
+    {
+        for (int i = 0; i < Integer.BYTES; ++i)
+        { a_buffer.put((byte)(a_value >>> (i * Byte.SIZE))); }
+    }
+
+    /* Auxiliary of ReadHeader, Read, IsPacked
+     * Reads an int (little-endian) at the buffer's position (regardless of the buffer's byte order).
+    */
+    private static int GetInt(ByteBuffer a_buffer)
+    {
+        int l_value = 0;
+
+        for (int i = 0; i < Integer.BYTES; ++i)
+        { l_value |= (a_buffer.get() & 0xFF) << (i * Byte.SIZE); }
+
+        return l_value;
+    }
+
+    /* Auxiliary of Pack
+     * Writes the contents of the buffer to the channel, and clears the buffer.
+    */
+    private static void Flush(FileChannel a_channel, ByteBuffer a_buffer)
+        throws IOException
+    {
+        a_buffer.flip();
+
+        while (a_buffer.hasRemaining())
+        { a_channel.write(a_buffer); }
+
+        a_buffer.clear();
+    }
+
+
+}
@@ -0,0 +1,333 @@
+
+package SudokuPackage;
+
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/* Sudoku Parser
+ * This class parses the text of a sudoku file into a flat primitive grid (row-major, length n*n), in a single pass over
+   its bytes (no Scanner, regex or String is used).
+ * Two formats are supported:
+     > Header: the width and height of a box, followed by the n*n values of the cells (row-by-row), separated by
+       whitespace (this is the format of the files in the sudokus/ directory). A value is written as a number, and an
+       empty cell as '0' or '.'.
+     > Compact: a single line of n*n symbols (row-by-row), without separators. The values 1 to 9 are written as digits
+       and the values 10 to 35 as letters (see SudokuCorpus), and an empty cell as '0' or '.'.
+ * The format is determined by the first (non-blank) line: if it contains a single token, the file is compact;
+   otherwise, it has a header. Anything after the last cell (e.g. a description of the format) is ignored.
+ * As the box dimensions of a compact sudoku aren't stored, they're either given or inferred from its size (see Parse).
+ * If the text isn't a well-formed sudoku, an IllegalArgumentException is thrown, whose message describes the problem.
+
+ * Class Composition:
+     (a). Publics (3)
+         (i). Statics (3)
+     (b). Auxiliaries (3)
+     (c). Nested Classes (1)
+         (i). Static Classes (1)
+*/
+public class SudokuParser
+{
+
+// (a). Publics (3) ====================================================================================================
+
+
+// (a)(i). Statics (3) -------------------------------------------------------------------------------------------------
+
+    /*
+     * This method parses the given text.
+
+     * Parameters:
+         > a_text: the text of a sudoku file (ASCII).
+         > a_width_box: the expected width of a box; if it (or a_height_box) is 0, any geometry is accepted, and that of
+           a compact sudoku is inferred (the box is as close to square as possible, and no higher than it is wide).
+         > a_height_box: the expected height of a box.
+
+     * Return Value:
+         > The sudoku.
+    */
+    public static Sudoku Parse(byte[] a_text, int a_width_box, int a_height_box)
+    {
+        int l_start = SkipWhitespace(a_text, 0);
+
+        if (l_start == a_text.length)
+        { throw new IllegalArgumentException("The text is empty."); }
+
+        // The end of the first token.
+        int l_end = l_start;
+
+        while (l_end < a_text.length && !IsWhitespace(a_text[l_end]))
+        { ++l_end; }
+
+        // The first non-whitespace character after the first token (on the same line).
+        int l_next = l_end;
+
+        while (l_next < a_text.length && a_text[l_next] != '\n' && IsWhitespace(a_text[l_next]))
+        { ++l_next; }
+
+        boolean l_compact = l_next == a_text.length || a_text[l_next] == '\n';
+
+        int l_width_box;
+        int l_height_box;
+        int l_position;
+
+        if (l_compact)
+        {
+            int l_size_grid = (int)Math.round(Math.sqrt(l_end - l_start));
+
+            if (l_size_grid * l_size_grid != l_end - l_start)
+            { throw new IllegalArgumentException("The length of the line (" + (l_end - l_start) + ") isn't square."); }
+
+            if (a_width_box * a_height_box == l_size_grid)
+            {
+                l_width_box = a_width_box;
+                l_height_box = a_height_box;
+            }
+            else
+            {
+                // The largest divisor of n that is no greater than its square root.
+                l_height_box = (int)Math.sqrt(l_size_grid);
+
+                while (l_size_grid % l_height_box != 0)
+                { --l_height_box; }
+
+                l_width_box = l_size_grid / l_height_box;
+            }
+
+            l_position = l_start;
+        }
+        else
+        {
+            int[] l_cursor = { l_start };
+
+            l_width_box = ParseNumber(a_text, l_cursor);
+            l_height_box = ParseNumber(a_text, l_cursor);
+
+            l_position = l_cursor[0];
+        }
+
+        if (a_width_box > 0 && a_height_box > 0 && (l_width_box != a_width_box || l_height_box != a_height_box))
+        {
+            throw new IllegalArgumentException(
+                "The box dimensions (" + l_width_box + "x" + l_height_box + ") don't match the expected ones (" +
+                a_width_box + "x" + a_height_box + ")."
+            );
+        }
+
+        if (l_width_box < 1 || l_height_box < 1 || l_width_box * l_height_box > Long.SIZE - 1)
+        { throw new IllegalArgumentException("The box dimensions (" + l_width_box + "x" + l_height_box + ") are invalid."); }
+
+        int l_size_grid = l_width_box * l_height_box;
+        int[] l_grid = new int[l_size_grid * l_size_grid];
+
+        if (l_compact)
+        {
+            for (int i = 0; i < l_grid.length; ++i)
+            {
+                int l_value = SudokuCorpus.ValueOfSymbol((char)a_text[l_position + i]);
+
+                if (l_value < 0 || l_value > l_size_grid)
+                { throw new IllegalArgumentException("The value of cell " + i + " is invalid."); }
+
+                l_grid[i] = l_value;
+            }
+
+        }
+        else
+        {
+            int[] l_cursor = { l_position };
+
+            for (int i = 0; i < l_grid.length; ++i)
+            {
+                int l_value = ParseNumber(a_text, l_cursor);
+
+                if (l_value > l_size_grid)
+                { throw new IllegalArgumentException("The value of cell " + i + " (" + l_value + ") is invalid."); }
+
+                l_grid[i] = l_value;
+            }
+
+        }
+
+        return new Sudoku(l_width_box, l_height_box, l_grid);
+    }
+
+    /*
+     * This method reads and parses the given file (see Parse).
+
+     * Parameters:
+         > a_file: the sudoku file.
+         > a_width_box: the expected width of a box (0 if any geometry is accepted).
+         > a_height_box: the expected height of a box (0 if any geometry is accepted).
+    */
+    public static Sudoku ParseFile(Path a_file, int a_width_box, int a_height_box)
+        throws IOException
+    {
+        return Parse(Files.readAllBytes(a_file), a_width_box, a_height_box);
+    }
+
+    /*
+     * This method reads and parses every .txt file in the given directory (see Parse).
+
+     * Parameters:
+         > a_directory: the directory.
+         > a_width_box: the expected width of a box (0 if any geometry is accepted).
+         > a_height_box: the expected height of a box (0 if any geometry is accepted).
+
+     * Return Value:
+         > The sudoku of each file (in order of file name).
+    */
+    public static Map<Path, Sudoku> ParseDirectory(Path a_directory, int a_width_box, int a_height_box)
+        throws IOException
+    {
+        List<Path> l_files = new ArrayList<Path>();
+
+        try (DirectoryStream<Path> l_stream = Files.newDirectoryStream(a_directory, "*.txt"))
+        {
+            for (Path file : l_stream)
+            { l_files.add(file); }
+        }
+
+        Collections.sort(l_files);
+
+        Map<Path, Sudoku> l_sudokus = new LinkedHashMap<Path, Sudoku>();
+
+        for (Path file : l_files)
+        {
+            try
+            {
+                l_sudokus.put(file, ParseFile(file, a_width_box, a_height_box));
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+            }
+
+        }
+
+        return l_sudokus;
+    }
+
+
+
+// (b). Auxiliaries (3) ================================================================================================
+
+    /* Auxiliary of Parse
+     * Parses the (non-negative, decimal) number, or '.', at the cursor (after any whitespace), and advances the cursor
+       past it.
+
+     * Parameters:
+         > a_text: the text.
+         > a_cursor: a one-element array that contains the position at which to start (updated).
+
+     * Return Value:
+         > The number (0 for '.').
+    */
+    private static int ParseNumber(byte[] a_text, int[] a_cursor)
+    {
+        int l_position = SkipWhitespace(a_text, a_cursor[0]);
+
+        if (l_position == a_text.length)
+        { throw new IllegalArgumentException("The text ends before the last cell."); }
+
+        int l_number = 0;
+
+        if (a_text[l_position] == '.')
+        {
+            ++l_position;
+        }
+        else
+        {
+            int l_start = l_position;
+
+            while (l_position < a_text.length && a_text[l_position] >= '0' && a_text[l_position] <= '9' &&
+                   l_position - l_start < 9)
+            {
+                l_number = l_number * 10 + (a_text[l_position] - '0');
+                ++l_position;
+            }
+
+            if (l_position == l_start)
+            { throw new IllegalArgumentException("Expected a number at offset " + l_position + "."); }
+        }
+
+        if (l_position < a_text.length && !IsWhitespace(a_text[l_position]))
+        { throw new IllegalArgumentException("Unexpected character at offset " + l_position + "."); }
+
+        a_cursor[0] = l_position;
+
+        return l_number;
+    }
+
+    /* Auxiliary of Parse, ParseNumber
+     * Returns the position of the first non-whitespace character at or after a_position (or the length of the text).
+    */
+    private static int SkipWhitespace(byte[] a_text, int a_position)
+    {
+        while (a_position < a_text.length && IsWhitespace(a_text[a_position]))
+        { ++a_position; }
+
+        return a_position;
+    }
+
+    /* Auxiliary of Parse, ParseNumber, SkipWhitespace
+     * Returns whether the given character is whitespace.
+    */
+    private static boolean IsWhitespace(byte a_character)
+    {
+        return a_character == ' ' || a_character == '\n' || a_character == '\r' || a_character == '\t';
+    }
+
+
+
+// (c). Nested Classes (1) =============================================================================================
+
+
+// (c)(i). Static Classes (1) ------------------------------------------------------------------------------------------
+
+    /* Sudoku
+     * An instance of this class is a parsed sudoku: its box dimensions and its grid (row-major, length n*n).
+    */
+    public static final class Sudoku
+    {
+        // The width and height of each box (no. of cells).
+        private final int f_width_box;
+        private final int f_height_box;
+
+        // The values of the cells (S_VALUE_EMPTY_CELL for an empty cell).
+        private final int f_grid[];
+
+        public Sudoku(int a_width_box, int a_height_box, int[] a_grid)
+        {
+            f_width_box = a_width_box;
+            f_height_box = a_height_box;
+            f_grid = a_grid;
+        }
+
+        public int GetWidthBox()
+        {
+            return f_width_box;
+        }
+
+        public int GetHeightBox()
+        {
+            return f_height_box;
+        }
+
+        public int[] GetGrid()
+        {
+            return f_grid;
+        }
+
+    } // public static final class Sudoku
+
+
+}
@@ -0,0 +1,386 @@
+
+package SudokuPackage;
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/* Sudoku Portfolio Solver
+ * An instance of this class solves a sudoku by racing several solving strategies against each other: each strategy
+   is run concurrently (on its own thread, with its own copy of the grid), and the first to finish wins.
+ * Different puzzles favour different strategies, so racing them gives a predictable solving time without having to
+   choose a strategy for each puzzle.
+ * A strategy finishes when it either finds a solution or proves there's none. Once a strategy has won, the others are
+   cancelled cooperatively via a shared flag, which they check periodically.
+ * A strategy that fails (i.e. throws) drops out of the race; the race fails only if every strategy fails.
+ * Each strategy runs on its own thread, and its engine (solver, DLX matrix, etc.) is created on that thread the first
+   time the strategy runs, and reused by every later race; so a race allocates nothing but copies of the grid. As a
+   thread runs one race's strategy at a time, a strategy that was cancelled in one race finishes (within one check of
+   the flag) before it starts the next.
+ * The threads are kept between races, and are released by close.
+
+ * Class Composition:
+     (a). Enums (1)
+     (b). Fields (5)
+         (i). Static Fields (1)
+     (c). Constructors (2)
+     (d). Publics (2)
+     (e). Auxiliaries (2)
+     (f). Nested Classes (2)
+         (i). Interfaces (1)
+         (ii). Static Classes (1)
+*/
+public class SudokuPortfolio
+    implements AutoCloseable
+{
+
+// (a). Enums (1) ======================================================================================================
+
+    /*
+     * An enum to represent the different strategies that can be raced.
+    */
+    public enum Strategy
+    {
+        RowMajor,               // Backtracking that branches on the first empty cell (row-major), without propagation.
+        MinimumRemainingValues, // Backtracking that branches on the cell with the fewest candidates, without propagation.
+        Propagation,            // Minimum-remaining-values backtracking with naked/hidden single propagation.
+        ExactCover,             // Dancing links (see SudokuSolverDLX).
+        Parallel                // Propagation, split into subproblems that are solved concurrently (see
+                                // SudokuSolverParallel).
+    }
+
+
+
+// (b). Fields (5) =====================================================================================================
+
+    /*
+     * The width and height of each box in the grid (no. of cells).
+    */
+    private final int f_width_box;
+    private final int f_height_box;
+
+    /*
+     * The strategies that are raced.
+    */
+    private final Strategy f_strategies[];
+
+    /*
+     * The thread on which each strategy is run.
+    */
+    private final ExecutorService f_executors[];
+
+    /*
+     * The engine of each strategy (null until the strategy first runs); each is only accessed on its strategy's
+       thread.
+    */
+    private final Engine f_engines[];
+
+
+// (b)(i). Static Fields (1) -------------------------------------------------------------------------------------------
+
+    // The no. of guesses a backtracking strategy makes between checks of the cancellation flag.
+    private static final long S_GUESSES_PER_CHECK = 1024;
+
+
+
+// (c). Constructors (2) ===============================================================================================
+
+    /*
+     * Constructs a portfolio that races every strategy.
+
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public SudokuPortfolio(int a_width_box, int a_height_box)
+    {
+        this(a_width_box, a_height_box, Strategy.values());
+    }
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_strategies: the strategies to race.
+    */
+    public SudokuPortfolio(int a_width_box, int a_height_box, Strategy... a_strategies)
+    {
+        if (a_width_box < 1 || a_height_box < 1 || a_width_box * a_height_box > Long.SIZE - 1)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        if (a_strategies.length == 0)
+        { throw new IllegalArgumentException("At least one strategy is required."); }
+
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_strategies = a_strategies.clone();
+
+        f_executors = new ExecutorService[f_strategies.length];
+        f_engines = new Engine[f_strategies.length];
+
+        // Daemon threads, so that an idle portfolio doesn't prevent the program from exiting.
+        for (int i = 0; i < f_strategies.length; ++i)
+        {
+            String l_name = "SudokuPortfolio-" + f_strategies[i];
+
+            f_executors[i] = Executors.newSingleThreadExecutor(
+                a_runnable ->
+                {
+                    Thread l_thread = new Thread(a_runnable, l_name);
+                    l_thread.setDaemon(true);
+                    return l_thread;
+                }
+            );
+
+        }
+
+    }
+
+
+
+// (d). Publics (2) ====================================================================================================
+
+    /*
+     * This method races the strategies on the given sudoku, and places the winner's solution (if any) in a_grid.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); on success, it contains the solution.
+
+     * Return Value:
+         > The result of the winning strategy.
+
+     * Exceptions:
+         > IllegalStateException: every strategy failed (the cause is the last failure).
+    */
+    public Result Solve(int[] a_grid)
+    {
+        int l_size_grid = f_width_box * f_height_box;
+
+        if (a_grid.length != l_size_grid * l_size_grid)
+        { throw new IllegalArgumentException("The grid must contain " + (l_size_grid * l_size_grid) + " cells."); }
+
+        // The flag that is set by the winner (which cancels the other strategies).
+        AtomicBoolean l_cancel = new AtomicBoolean();
+
+        CompletableFuture<Result> l_winner = new CompletableFuture<Result>();
+
+        // The no. of strategies that have failed.
+        AtomicInteger l_count_failed = new AtomicInteger();
+
+        // The grid in which the winner places its solution.
+        int[] l_solution = new int[a_grid.length];
+
+        long l_time_start = System.nanoTime();
+
+        for (int i = 0; i < f_strategies.length; ++i)
+        {
+            int l_index = i;
+            Strategy l_strategy = f_strategies[i];
+
+            int[] l_grid = a_grid.clone();
+
+            f_executors[i].execute(
+                () ->
+                {
+                    try
+                    {
+                        if (f_engines[l_index] == null)
+                        { f_engines[l_index] = CreateEngine(l_strategy); }
+
+                        boolean l_solved = f_engines[l_index].Solve(l_grid, l_cancel);
+
+                        // Only the first strategy to finish (rather than be cancelled) wins.
+                        if (l_cancel.compareAndSet(false, true))
+                        {
+                            System.arraycopy(l_grid, 0, l_solution, 0, l_grid.length);
+
+                            l_winner.complete(new Result(l_solved, l_strategy, System.nanoTime() - l_time_start));
+                        }
+
+                    }
+                    catch (Throwable e)
+                    {
+                        // The engine may have been left mid-search, so it's rebuilt the next time.
+                        f_engines[l_index] = null;
+
+                        // The race only fails once every strategy has (the last failure is reported).
+                        if (l_count_failed.incrementAndGet() == f_strategies.length)
+                        { l_winner.completeExceptionally(e); }
+
+                    }
+
+                }
+            );
+
+        }
+
+        Result l_result;
+
+        try
+        {
+            l_result = l_winner.get();
+        }
+        catch (InterruptedException e)
+        {
+            l_cancel.set(true);
+            Thread.currentThread().interrupt();
+            return new Result(false, null, System.nanoTime() - l_time_start);
+        }
+        catch (ExecutionException e)
+        {
+            l_cancel.set(true);
+            throw new IllegalStateException(e.getCause());
+        }
+
+        if (l_result.IsSolved())
+        { System.arraycopy(l_solution, 0, a_grid, 0, a_grid.length); }
+
+        return l_result;
+    }
+
+    /*
+     * This method releases the threads of the portfolio; afterwards, it can't be used to solve.
+    */
+    @Override
+    public void close()
+    {
+        for (ExecutorService executor : f_executors)
+        { executor.shutdownNow(); }
+    }
+
+
+
+// (e). Auxiliaries (2) ================================================================================================
+
+    /* Auxiliary of Solve
+     * Creates the engine of the given strategy (on the strategy's thread).
+    */
+    private Engine CreateEngine(Strategy a_strategy)
+    {
+        if (a_strategy == Strategy.ExactCover)
+        {
+            SudokuSolverDLX l_solver = new SudokuSolverDLX(f_width_box, f_height_box);
+
+            return (a_grid, a_cancel) ->
+            {
+                l_solver.SetCancelFlag(a_cancel);
+                return l_solver.Solve(a_grid);
+            };
+        }
+
+        if (a_strategy == Strategy.Parallel)
+        {
+            // Its subproblems' solvers are kept by the pool's threads, so they're reused too.
+            SudokuSolverParallel l_solver = new SudokuSolverParallel(f_width_box, f_height_box);
+
+            return (a_grid, a_cancel) ->
+            {
+                l_solver.SetCancelFlag(a_cancel);
+                return l_solver.Solve(a_grid);
+            };
+        }
+
+        SudokuSolver l_solver;
+
+        if (a_strategy == Strategy.RowMajor)
+        {
+            l_solver = new SudokuSolver(f_width_box, f_height_box, new SudokuCellSelector.RowMajor());
+            l_solver.SetPropagate(false);
+        }
+        else if (a_strategy == Strategy.MinimumRemainingValues)
+        {
+            l_solver = new SudokuSolver(f_width_box, f_height_box);
+            l_solver.SetPropagate(false);
+        }
+        else
+        {
+            l_solver = new SudokuSolver(f_width_box, f_height_box);
+        }
+
+        return (a_grid, a_cancel) -> RunBackTracking(l_solver, a_grid, a_cancel);
+    }
+
+    /* Auxiliary of CreateEngine
+     * Runs the given solver's search in bursts, checking a_cancel between them.
+    */
+    private static boolean RunBackTracking(SudokuSolver a_solver, int[] a_grid, AtomicBoolean a_cancel)
+    {
+        if (!a_solver.Start(a_grid))
+        { return false; }
+
+        while (!a_cancel.get())
+        {
+            SudokuSolver.SearchStatus l_status = a_solver.Search(S_GUESSES_PER_CHECK);
+
+            if (l_status != SudokuSolver.SearchStatus.Paused)
+            { return l_status == SudokuSolver.SearchStatus.Solved; }
+        }
+
+        return false;
+    }
+
+
+
+// (f). Nested Classes (2) =============================================================================================
+
+
+// (f)(i). Interfaces (1) ----------------------------------------------------------------------------------------------
+
+    /* Engine
+     * An implementation of this interface runs a strategy on a grid (in place) until it finishes or is cancelled, and
+       returns whether the sudoku was solved (the value is meaningless if a_cancel was set).
+    */
+    private interface Engine
+    {
+        boolean Solve(int[] a_grid, AtomicBoolean a_cancel);
+    }
+
+
+// (f)(ii). Static Classes (1) -----------------------------------------------------------------------------------------
+
+    /* Result
+     * An instance of this class is the outcome of a race: whether the sudoku was solved, which strategy won, and how
+       long it took.
+    */
+    public static final class Result
+    {
+        // A flag that, when true, indicates that the sudoku was solved; otherwise, it has no solution.
+        private final boolean f_solved;
+
+        // The strategy that finished first (null if the race was interrupted).
+        private final Strategy f_strategy;
+
+        // The time from the start of the race until the winner finished (ns).
+        private final long f_time_nanos;
+
+        public Result(boolean a_solved, Strategy a_strategy, long a_time_nanos)
+        {
+            f_solved = a_solved;
+            f_strategy = a_strategy;
+            f_time_nanos = a_time_nanos;
+        }
+
+        public boolean IsSolved()
+        {
+            return f_solved;
+        }
+
+        public Strategy GetStrategy()
+        {
+            return f_strategy;
+        }
+
+        public long GetTimeNanos()
+        {
+            return f_time_nanos;
+        }
+
+    } // public static final class Result
+
+
+}
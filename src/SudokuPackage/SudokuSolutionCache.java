@@ -0,0 +1,315 @@
+
+package SudokuPackage;
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/* Sudoku Solution Cache
+ * An instance of this class is a bounded, thread-safe cache of the solutions of sudokus, which allows a sudoku that
+   has already been solved to be 'solved' again without searching.
+ * Each sudoku is keyed by a 128-bit hash of its clues and its box dimensions (see Hash), rather than by the grid
+   itself, so that a lookup doesn't compare (or retain) whole grids; the chance of two different sudokus colliding is
+   negligible (about 2^-64 for billions of sudokus).
+ * The solutions are stored as bytes (a value never exceeds 63). Once the cache holds f_capacity solutions, the least
+   recently used one is evicted to make room for another.
+ * Every operation holds the instance's lock briefly (the search itself is performed outside the cache), and the no.
+   of hits, misses and evictions are counted.
+
+ * Class Composition:
+     (a). Fields (5)
+     (b). Constructors (1)
+     (c). Publics (11)
+         (i). Statics (1)
+         (ii). Accessors (4)
+     (d). Auxiliaries (1)
+     (e). Nested Classes (1)
+         (i). Static Classes (1)
+*/
+public class SudokuSolutionCache
+{
+
+// (a). Fields (5) =====================================================================================================
+
+    /*
+     * The maximum no. of solutions the cache holds.
+    */
+    private final int f_capacity;
+
+    /*
+     * The solutions, in order of access (least recently used first).
+    */
+    private final LinkedHashMap<Key, byte[]> f_solutions;
+
+    /*
+     * The no. of lookups that found a solution.
+    */
+    private long f_count_hits;
+
+    /*
+     * The no. of lookups that didn't find a solution.
+    */
+    private long f_count_misses;
+
+    /*
+     * The no. of solutions that have been evicted.
+    */
+    private long f_count_evictions;
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+     * Parameters:
+         > a_capacity: the maximum no. of solutions the cache holds.
+    */
+    public SudokuSolutionCache(int a_capacity)
+    {
+        if (a_capacity < 1)
+        { throw new IllegalArgumentException("The capacity must be positive."); }
+
+        f_capacity = a_capacity;
+
+        f_solutions = new LinkedHashMap<Key, byte[]>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, byte[]> a_eldest)
+            {
+                if (size() <= f_capacity)
+                { return false; }
+
+                ++f_count_evictions;
+                return true;
+            }
+        };
+
+    }
+
+
+
+// (c). Publics (11) ====================================================================================================
+
+    /*
+     * This method looks up the solution of the given sudoku and, if it's cached, places it in a_grid.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); on a hit, it contains the solution.
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+
+     * Return Value:
+         > A boolean corresponding to whether the solution was cached (a_grid is left as it was if not).
+    */
+    public boolean Get(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        return Get(Hash(a_grid, a_width_box, a_height_box), a_grid);
+    }
+
+    /*
+     * This method looks up the solution of the sudoku with the given hash and, if it's cached, places it in a_grid.
+
+     * Parameters:
+         > a_key: the hash of the sudoku (see Hash).
+         > a_grid: the grid (row-major, length n*n) in which the solution is placed on a hit.
+
+     * Return Value:
+         > A boolean corresponding to whether the solution was cached (a_grid is left as it was if not).
+    */
+    public boolean Get(Key a_key, int[] a_grid)
+    {
+        byte[] l_solution;
+
+        synchronized (this)
+        {
+            l_solution = f_solutions.get(a_key);
+
+            if (l_solution == null)
+            {
+                ++f_count_misses;
+                return false;
+            }
+
+            ++f_count_hits;
+        }
+
+        for (int i = 0; i < a_grid.length; ++i)
+        { a_grid[i] = l_solution[i]; }
+
+        return true;
+    }
+
+    /*
+     * This method caches the solution of the given sudoku.
+
+     * Parameters:
+         > a_puzzle: the sudoku (row-major, length n*n).
+         > a_solution: its solution.
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public void Put(int[] a_puzzle, int[] a_solution, int a_width_box, int a_height_box)
+    {
+        if (a_solution.length != a_puzzle.length)
+        { throw new IllegalArgumentException("The puzzle and its solution must be the same size."); }
+
+        Put(Hash(a_puzzle, a_width_box, a_height_box), a_solution);
+    }
+
+    /*
+     * This method caches the solution of the sudoku with the given hash.
+
+     * Parameters:
+         > a_key: the hash of the sudoku (see Hash).
+         > a_solution: its solution (row-major, length n*n).
+    */
+    public void Put(Key a_key, int[] a_solution)
+    {
+        byte[] l_solution = new byte[a_solution.length];
+
+        for (int i = 0; i < a_solution.length; ++i)
+        { l_solution[i] = (byte)a_solution[i]; }
+
+        synchronized (this)
+        {
+            f_solutions.put(a_key, l_solution);
+        }
+
+    }
+
+    /*
+     * This method removes every solution from the cache (the counters aren't reset).
+    */
+    public synchronized void Clear()
+    {
+        f_solutions.clear();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String.format(
+            "Cache: %d/%d solutions; %d hits, %d misses, %d evictions",
+            f_solutions.size(), f_capacity, f_count_hits, f_count_misses, f_count_evictions
+        );
+    }
+
+
+// (c)(i). Statics (1) -------------------------------------------------------------------------------------------------
+
+    /*
+     * This method computes the 128-bit hash of the given sudoku (its clues and its box dimensions).
+     * The two halves are computed independently (with different multipliers), and each is finalised with the
+       MurmurHash3 mixer, so that every cell affects every bit.
+    */
+    public static Key Hash(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        long l_high = 0x9E3779B97F4A7C15L ^ a_width_box;
+        long l_low = 0xC2B2AE3D27D4EB4FL ^ a_height_box;
+
+        for (int value : a_grid)
+        {
+            l_high = Long.rotateLeft((l_high ^ value) * 0x87C37B91114253D5L, 31);
+            l_low = Long.rotateLeft((l_low ^ value) * 0x4CF5AD432745937FL, 27);
+        }
+
+        return new Key(Mix(l_high ^ a_grid.length), Mix(l_low + l_high));
+    }
+
+
+// (c)(ii). Accessors (4) ----------------------------------------------------------------------------------------------
+
+    public synchronized long GetCountHits()
+    {
+        return f_count_hits;
+    }
+
+    public synchronized long GetCountMisses()
+    {
+        return f_count_misses;
+    }
+
+    public synchronized long GetCountEvictions()
+    {
+        return f_count_evictions;
+    }
+
+    public synchronized int GetSize()
+    {
+        return f_solutions.size();
+    }
+
+
+
+// (d). Auxiliaries (1) ================================================================================================
+
+    /* Auxiliary of Hash
+     * The finaliser of MurmurHash3 (64-bit).
+    */
+    private static long Mix(long a_value)
+    {
+        a_value ^= a_value >>> 33;
+        a_value *= 0xFF51AFD7ED558CCDL;
+        a_value ^= a_value >>> 33;
+        a_value *= 0xC4CEB9FE1A85EC53L;
+        a_value ^= a_value >>> 33;
+
+        return a_value;
+    }
+
+
+
+// (e). Nested Classes (1) =============================================================================================
+
+
+// (e)(i). Static Classes (1) ------------------------------------------------------------------------------------------
+
+    /* Key
+     * An instance of this class is the 128-bit hash of a sudoku (see Hash).
+    */
+    public static final class Key
+    {
+        // The high and low halves of the hash.
+        private final long f_high;
+        private final long f_low;
+
+        public Key(long a_high, long a_low)
+        {
+            f_high = a_high;
+            f_low = a_low;
+        }
+
+        public long GetHigh()
+        {
+            return f_high;
+        }
+
+        public long GetLow()
+        {
+            return f_low;
+        }
+
+        @Override
+        public boolean equals(Object a_other)
+        {
+            if (!(a_other instanceof Key))
+            { return false; }
+
+            Key l_other = (Key)a_other;
+
+            return f_high == l_other.f_high && f_low == l_other.f_low;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (int)f_low;
+        }
+
+    } // public static final class Key
+
+
+}
@@ -0,0 +1,140 @@
+
+package SudokuPackage;
+
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+
+/* Sudoku Solution Spliterator
+ * An instance of this class enumerates the solutions of a sudoku lazily: each call to tryAdvance resumes the search
+   (of its SudokuSolver) until the next solution is found, and no solutions are buffered.
+ * trySplit hands part of the remaining search to a new instance (see SudokuSolver.SplitInto), which allows the
+   solutions to be consumed by a parallel stream.
+ * Each solution that's passed to a consumer is a new array (the instance's own grid is modified by the search).
+ * As the no. of solutions is unknown, the estimated size starts at Long.MAX_VALUE and is halved by each split (as per
+   Spliterators.AbstractSpliterator), which stops a parallel stream from splitting the search all the way down.
+ * See SudokuSolver.StreamSolutions.
+
+ * Class Composition:
+     (a). Fields (4)
+     (b). Constructors (2)
+     (c). Publics (4)
+*/
+public class SudokuSolutionSpliterator
+    implements Spliterator<int[]>
+{
+
+// (a). Fields (4) =====================================================================================================
+
+    /*
+     * The solver that performs this instance's part of the search.
+    */
+    private final SudokuSolver f_solver;
+
+    /*
+     * The grid that f_solver searches (owned by this instance).
+    */
+    private final int f_grid[];
+
+    /*
+     * A flag that, when true, indicates that there may be more solutions.
+    */
+    private boolean f_active;
+
+    /*
+     * The estimated no. of solutions (see estimateSize).
+    */
+    private long f_estimate;
+
+
+
+// (b). Constructors (2) ===============================================================================================
+
+    /*
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); it's modified by the search, so it mustn't be shared.
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public SudokuSolutionSpliterator(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        f_solver = new SudokuSolver(a_width_box, a_height_box);
+        f_grid = a_grid;
+        f_active = f_solver.Start(f_grid);
+        f_estimate = Long.MAX_VALUE;
+    }
+
+    /*
+     * Constructs an instance whose solver has already been started (on a_grid).
+    */
+    private SudokuSolutionSpliterator(SudokuSolver a_solver, int[] a_grid, long a_estimate)
+    {
+        f_solver = a_solver;
+        f_grid = a_grid;
+        f_active = true;
+        f_estimate = a_estimate;
+    }
+
+
+
+// (c). Publics (4) ====================================================================================================
+
+    /* Implementation of Spliterator.tryAdvance(...)
+     * Searches for the next solution and, if there is one, passes (a copy of) it to a_action.
+    */
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> a_action)
+    {
+        if (!f_active)
+        { return false; }
+
+        if (f_solver.Search(Long.MAX_VALUE) != SudokuSolver.SearchStatus.Solved)
+        {
+            f_active = false;
+            return false;
+        }
+
+        a_action.accept(f_grid.clone());
+
+        return true;
+    }
+
+    /* Implementation of Spliterator.trySplit()
+     * Splits off part of the remaining search, or returns null if there's nothing to split off.
+    */
+    @Override
+    public Spliterator<int[]> trySplit()
+    {
+        if (!f_active)
+        { return null; }
+
+        SudokuSolver l_solver = new SudokuSolver(f_solver.GetWidthBox(), f_solver.GetHeightBox());
+        int[] l_grid = new int[f_grid.length];
+
+        if (!f_solver.SplitInto(l_solver, l_grid))
+        { return null; }
+
+        f_estimate >>>= 1;
+
+        return new SudokuSolutionSpliterator(l_solver, l_grid, f_estimate);
+    }
+
+    /* Implementation of Spliterator.estimateSize()
+    */
+    @Override
+    public long estimateSize()
+    {
+        return f_estimate;
+    }
+
+    /* Implementation of Spliterator.characteristics()
+    */
+    @Override
+    public int characteristics()
+    {
+        return Spliterator.NONNULL | Spliterator.DISTINCT;
+    }
+
+
+}
@@ -0,0 +1,809 @@
+
+package SudokuPackage;
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/* Sudoku Solution Store
+ * An instance of this class is a persistent (on-disk) store of the solutions of sudokus of a given geometry, which
+   allows a sudoku that was solved in an earlier run of the program to be 'solved' again without searching.
+ * Like SudokuSolutionCache, each sudoku is keyed by the 128-bit hash of its clues (see SudokuSolutionCache.Hash).
+ * The store consists of three files in a directory (named after the geometry, e.g. solutions_3x3.*):
+     > Data (.dat): an append-only log of records, after a packed-format header (see SudokuPackedFormat). Each record
+       is S_SIZE_KEY bytes of key (little-endian high and low halves), a status byte (S_STATUS_LIVE, or
+       S_STATUS_REMOVED for a record that marks the removal of a key), and the solution, packed with a checksum.
+       The records are never modified, so a crash can at worst leave a partial record at the end, which is discarded
+       when the store is next opened.
+     > Index (.idx): a memory-mapped, open-addressed (linear probing) hash table that maps each key to the offset of its
+       record in the data file. Its header records how much of the data file it covers; the records after that point
+       are (re-)indexed when the store is opened, and if the index is missing or damaged it's rebuilt from the data
+       file. The table is kept at most half full, and is rebuilt at twice the capacity once it isn't.
+     > Lock (.lock): a file that is locked while the store is open, so that no other process can open it.
+ * A record becomes garbage when its key is removed (or re-added); Compact rewrites the data file without the garbage.
+ * The stores are shared within the program: Open returns the same instance for the same files. Each call to Open must
+   be matched by a call to close, which flushes the store; the files are only closed (and the lock released) by the
+   last one. Every operation holds the instance's lock (the search itself is performed outside the store).
+
+ * Class Composition:
+     (a). Fields (16)
+         (i). Static Fields (14)
+     (b). Constructors (1)
+     (c). Publics (12)
+         (i). Statics (1)
+         (ii). Accessors (4)
+     (d). Auxiliaries (10)
+*/
+public class SudokuSolutionStore
+    implements Closeable
+{
+
+// (a). Fields (16) ====================================================================================================
+
+    /*
+     * The width and height of each box (no. of cells).
+    */
+    private final int f_width_box;
+    private final int f_height_box;
+
+    /*
+     * The format of the solutions (and of the data file's header).
+    */
+    private final SudokuPackedFormat f_format;
+
+    /*
+     * The size of each record (no. of bytes).
+    */
+    private final int f_size_record;
+
+    /*
+     * The paths of the data and index files (the former also identifies the store in S_STORES).
+    */
+    private final Path f_path_data;
+    private final Path f_path_index;
+
+    /*
+     * The channels of the data and index files, and the lock on the lock file.
+    */
+    private FileChannel f_channel_data;
+    private final FileChannel f_channel_index;
+    private final FileLock f_lock;
+
+    /*
+     * The index: a header of S_SIZE_HEADER_INDEX bytes, followed by f_capacity slots of S_SIZE_SLOT bytes (all fields are
+       little-endian).
+    */
+    private MappedByteBuffer f_index;
+    private int f_capacity;
+
+    /*
+     * The no. of keys in the index.
+    */
+    private int f_count;
+
+    /*
+     * The no. of records in the data file (incl. garbage).
+    */
+    private long f_count_records;
+
+    /*
+     * A buffer of one record, and a grid into which a solution is unpacked before it's checked.
+    */
+    private final ByteBuffer f_record;
+    private final int f_grid[];
+
+    /*
+     * The no. of calls to Open that haven't been matched by a call to close (guarded by S_STORES).
+    */
+    private int f_count_opens;
+
+
+// (a)(i). Static Fields (14) ------------------------------------------------------------------------------------------
+
+    // The magic number that identifies the index file ('SDKI' in ASCII, read as a little-endian int).
+    private static final int S_MAGIC_INDEX = 'S' | 'D' << 8 | 'K' << 16 | 'I' << 24;
+
+    // The size of the index file's header, and the offsets of its fields: the magic no. (int), the capacity (int), the
+    // no. of keys (long), and the length of the data file that's covered by the index (long).
+    private static final int S_SIZE_HEADER_INDEX = 24;
+    private static final int S_OFFSET_CAPACITY = 4;
+    private static final int S_OFFSET_COUNT = 8;
+    private static final int S_OFFSET_LENGTH = 16;
+
+    // The size of a slot of the index: the high and low halves of the key, and the offset of its record (0 if empty).
+    private static final int S_SIZE_SLOT = 24;
+    private static final int S_OFFSET_RECORD = 16;
+
+    // The size of a record's key (no. of bytes).
+    private static final int S_SIZE_KEY = 16;
+
+    // The statuses of a record.
+    private static final byte S_STATUS_LIVE = 1;
+    private static final byte S_STATUS_REMOVED = 0;
+
+    // The initial and maximum capacities of the index (no. of slots).
+    private static final int S_CAPACITY_MIN = 1 << 10;
+    private static final int S_CAPACITY_MAX = 1 << 26;
+
+    // The no. of records that are read at a time when the data file is scanned.
+    private static final int S_RECORDS_PER_READ = 1 << 12;
+
+    // The stores that are open, by the path of their data file.
+    private static final Map<Path, SudokuSolutionStore> S_STORES = new HashMap<Path, SudokuSolutionStore>();
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+     * Opens (or creates) the store of the given geometry in the given directory (see Open).
+    */
+    private SudokuSolutionStore(Path a_directory, int a_width_box, int a_height_box)
+        throws IOException
+    {
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_format = new SudokuPackedFormat(a_width_box, a_height_box, true);
+        f_size_record = S_SIZE_KEY + 1 + f_format.GetStride();
+
+        Files.createDirectories(a_directory);
+
+        String l_name = "solutions_" + a_width_box + "x" + a_height_box;
+
+        f_path_data = a_directory.resolve(l_name + ".dat").toAbsolutePath().normalize();
+        f_path_index = a_directory.resolve(l_name + ".idx");
+
+        FileChannel l_channel_lock = FileChannel.open(a_directory.resolve(l_name + ".lock"), StandardOpenOption.CREATE,
+                                                      StandardOpenOption.WRITE);
+
+        f_lock = l_channel_lock.tryLock();
+
+        if (f_lock == null)
+        {
+            l_channel_lock.close();
+            throw new IOException("The store '" + f_path_data + "' is in use by another process.");
+        }
+
+        f_record = ByteBuffer.allocate(f_size_record).order(ByteOrder.LITTLE_ENDIAN);
+        f_grid = new int[a_width_box * a_height_box * a_width_box * a_height_box];
+
+        FileChannel l_channel_data = null;
+        FileChannel l_channel_index = null;
+
+        try
+        {
+            l_channel_data = FileChannel.open(f_path_data, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                              StandardOpenOption.WRITE);
+            l_channel_index = FileChannel.open(f_path_index, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+
+            f_channel_data = l_channel_data;
+            f_channel_index = l_channel_index;
+
+            Load();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            if (l_channel_data != null)
+            { l_channel_data.close(); }
+
+            if (l_channel_index != null)
+            { l_channel_index.close(); }
+
+            l_channel_lock.close();
+            throw e;
+        }
+
+    }
+
+
+
+// (c). Publics (12) ===================================================================================================
+
+    /*
+     * This method looks up the solution of the given sudoku and, if it's stored, places it in a_grid.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); on a hit, it contains the solution.
+
+     * Return Value:
+         > A boolean corresponding to whether the solution was stored (a_grid is left as it was if not).
+    */
+    public boolean Get(int[] a_grid)
+        throws IOException
+    {
+        return Get(SudokuSolutionCache.Hash(a_grid, f_width_box, f_height_box), a_grid);
+    }
+
+    /*
+     * This method looks up the solution of the sudoku with the given hash and, if it's stored, places it in a_grid.
+     * A record that is damaged (i.e. its checksum doesn't match) is treated as absent.
+
+     * Parameters:
+         > a_key: the hash of the sudoku (see SudokuSolutionCache.Hash).
+         > a_grid: the grid (row-major, length n*n) in which the solution is placed on a hit.
+
+     * Return Value:
+         > A boolean corresponding to whether the solution was stored (a_grid is left as it was if not).
+    */
+    public synchronized boolean Get(SudokuSolutionCache.Key a_key, int[] a_grid)
+        throws IOException
+    {
+        if (a_grid.length != f_grid.length)
+        { throw new IllegalArgumentException("The grid must contain " + f_grid.length + " cells."); }
+
+        int l_slot = Find(a_key);
+
+        if (l_slot < 0)
+        { return false; }
+
+        ReadRecord(f_index.getLong(SlotOffset(l_slot) + S_OFFSET_RECORD));
+
+        if (f_record.getLong() != a_key.GetHigh() || f_record.getLong() != a_key.GetLow() ||
+            f_record.get() != S_STATUS_LIVE || !f_format.Read(f_record, f_grid))
+        { return false; }
+
+        System.arraycopy(f_grid, 0, a_grid, 0, a_grid.length);
+
+        return true;
+    }
+
+    /*
+     * This method stores the solution of the given sudoku (unless a solution of it is already stored).
+
+     * Parameters:
+         > a_puzzle: the sudoku (row-major, length n*n).
+         > a_solution: its solution.
+    */
+    public void Put(int[] a_puzzle, int[] a_solution)
+        throws IOException
+    {
+        if (a_solution.length != a_puzzle.length)
+        { throw new IllegalArgumentException("The puzzle and its solution must be the same size."); }
+
+        Put(SudokuSolutionCache.Hash(a_puzzle, f_width_box, f_height_box), a_solution);
+    }
+
+    /*
+     * This method stores the solution of the sudoku with the given hash (unless a solution of it is already stored).
+
+     * Parameters:
+         > a_key: the hash of the sudoku (see SudokuSolutionCache.Hash).
+         > a_solution: its solution (row-major, length n*n).
+    */
+    public synchronized void Put(SudokuSolutionCache.Key a_key, int[] a_solution)
+        throws IOException
+    {
+        if (Find(a_key) >= 0)
+        { return; }
+
+        Insert(a_key, Append(a_key, S_STATUS_LIVE, a_solution));
+
+        f_index.putLong(S_OFFSET_LENGTH, f_channel_data.size());
+    }
+
+    /*
+     * This method removes the solution of the sudoku with the given hash (if it's stored).
+
+     * Return Value:
+         > A boolean corresponding to whether the solution was stored.
+    */
+    public synchronized boolean Remove(SudokuSolutionCache.Key a_key)
+        throws IOException
+    {
+        if (Find(a_key) < 0)
+        { return false; }
+
+        Append(a_key, S_STATUS_REMOVED, new int[f_grid.length]);
+        Delete(a_key);
+
+        f_index.putLong(S_OFFSET_LENGTH, f_channel_data.size());
+
+        return true;
+    }
+
+    /*
+     * This method rewrites the data file without its garbage (i.e. only the records of the keys in the index remain,
+       in their current order), and rebuilds the index.
+     * The new file is written alongside the old one and then moved over it, so a crash leaves one or the other intact.
+    */
+    public synchronized void Compact()
+        throws IOException
+    {
+        Path l_path_compact = f_path_data.resolveSibling(f_path_data.getFileName() + ".compact");
+
+        ByteBuffer l_buffer = ByteBuffer.allocate(f_size_record * S_RECORDS_PER_READ).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (FileChannel l_channel = FileChannel.open(l_path_compact, StandardOpenOption.CREATE,
+                                                      StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer l_header = ByteBuffer.allocate(SudokuPackedFormat.S_SIZE_HEADER);
+            f_format.WriteHeader(l_header);
+            l_header.flip();
+            Write(l_channel, l_header);
+
+            ByteBuffer l_output = ByteBuffer.allocate(l_buffer.capacity());
+
+            for (long offset = SudokuPackedFormat.S_SIZE_HEADER; offset < f_channel_data.size(); )
+            {
+                l_buffer.clear();
+                l_buffer.limit((int)Math.min(l_buffer.capacity(), f_channel_data.size() - offset));
+
+                while (l_buffer.hasRemaining())
+                { f_channel_data.read(l_buffer, offset + l_buffer.position()); }
+
+                for (int i = 0; i < l_buffer.limit(); i += f_size_record)
+                {
+                    SudokuSolutionCache.Key l_key = new SudokuSolutionCache.Key(l_buffer.getLong(i),
+                                                                                l_buffer.getLong(i + Long.BYTES));
+
+                    int l_slot = Find(l_key);
+
+                    // A record is live if the index refers to it.
+                    if (l_slot >= 0 && f_index.getLong(SlotOffset(l_slot) + S_OFFSET_RECORD) == offset + i)
+                    { l_output.put(l_buffer.array(), i, f_size_record); }
+                }
+
+                l_output.flip();
+                Write(l_channel, l_output);
+                l_output.clear();
+
+                offset += l_buffer.limit();
+            }
+
+            l_channel.force(true);
+        }
+
+        f_channel_data.close();
+
+        Files.move(l_path_compact, f_path_data, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        f_channel_data = FileChannel.open(f_path_data, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        f_count_records = (f_channel_data.size() - SudokuPackedFormat.S_SIZE_HEADER) / f_size_record;
+
+        Rebuild(f_capacity);
+    }
+
+    /*
+     * This method forces the store's changes to be written to the storage device.
+    */
+    public synchronized void Flush()
+        throws IOException
+    {
+        f_channel_data.force(false);
+        f_index.force();
+    }
+
+    /*
+     * This method flushes the store and, if this matches the last unmatched call to Open, closes it; afterwards, Open
+       returns a new instance.
+    */
+    @Override
+    public void close()
+        throws IOException
+    {
+        synchronized (S_STORES)
+        {
+            synchronized (this)
+            {
+                if (S_STORES.get(f_path_data) != this)
+                { return; }
+
+                Flush();
+
+                if (--f_count_opens > 0)
+                { return; }
+
+                S_STORES.remove(f_path_data);
+
+                f_channel_data.close();
+                f_channel_index.close();
+                f_lock.release();
+                f_lock.channel().close();
+            }
+
+        }
+
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String.format(
+            "Store: %d solutions in %d records (%d bytes)", f_count, f_count_records,
+            SudokuPackedFormat.S_SIZE_HEADER + f_count_records * f_size_record
+        );
+    }
+
+
+// (c)(i). Statics (1) -------------------------------------------------------------------------------------------------
+
+    /*
+     * This method opens (or creates) the store of the given geometry in the given directory; if it's already open, the
+       existing instance is returned. Either way, the caller must close it once it's no longer needed.
+
+     * Parameters:
+         > a_directory: the directory of the store's files (created if it doesn't exist).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public static SudokuSolutionStore Open(Path a_directory, int a_width_box, int a_height_box)
+        throws IOException
+    {
+        Path l_path_data = a_directory.resolve("solutions_" + a_width_box + "x" + a_height_box + ".dat")
+                                      .toAbsolutePath().normalize();
+
+        synchronized (S_STORES)
+        {
+            SudokuSolutionStore l_store = S_STORES.get(l_path_data);
+
+            if (l_store == null)
+            {
+                l_store = new SudokuSolutionStore(a_directory, a_width_box, a_height_box);
+                S_STORES.put(l_path_data, l_store);
+            }
+
+            ++l_store.f_count_opens;
+
+            return l_store;
+        }
+
+    }
+
+
+// (c)(ii). Accessors (4) ----------------------------------------------------------------------------------------------
+
+    public int GetWidthBox()
+    {
+        return f_width_box;
+    }
+
+    public int GetHeightBox()
+    {
+        return f_height_box;
+    }
+
+    /*
+     * Returns the no. of solutions in the store.
+    */
+    public synchronized int GetCount()
+    {
+        return f_count;
+    }
+
+    /*
+     * Returns the no. of records in the data file (incl. garbage).
+    */
+    public synchronized long GetCountRecords()
+    {
+        return f_count_records;
+    }
+
+
+
+// (d). Auxiliaries (10) ===============================================================================================
+
+    /* Auxiliary of SudokuSolutionStore
+     * Validates the data file (writing its header if it's new, and discarding a partial record at its end), maps the
+       index, and brings the index up to date with the data file (or rebuilds it, if it's missing or damaged).
+    */
+    private void Load()
+        throws IOException
+    {
+        ByteBuffer l_header = ByteBuffer.allocate(SudokuPackedFormat.S_SIZE_HEADER);
+
+        if (f_channel_data.size() < SudokuPackedFormat.S_SIZE_HEADER)
+        {
+            f_channel_data.truncate(0);
+            f_format.WriteHeader(l_header);
+            l_header.flip();
+            Write(f_channel_data, l_header);
+        }
+        else
+        {
+            while (l_header.hasRemaining())
+            { f_channel_data.read(l_header, l_header.position()); }
+
+            l_header.flip();
+
+            SudokuPackedFormat l_format;
+
+            try
+            {
+                l_format = SudokuPackedFormat.ReadHeader(l_header);
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException("The file '" + f_path_data + "' isn't a store: " + e.getMessage(), e);
+            }
+
+            if (l_format.GetWidthBox() != f_width_box || l_format.GetHeightBox() != f_height_box ||
+                !l_format.HasChecksum())
+            { throw new IOException("The file '" + f_path_data + "' isn't a store of this geometry."); }
+        }
+
+        f_count_records = (f_channel_data.size() - SudokuPackedFormat.S_SIZE_HEADER) / f_size_record;
+
+        long l_length = SudokuPackedFormat.S_SIZE_HEADER + f_count_records * f_size_record;
+
+        if (f_channel_data.size() > l_length)
+        { f_channel_data.truncate(l_length); }
+
+        // The index is usable if its header is intact and it doesn't cover more of the data file than exists.
+        long l_size_index = f_channel_index.size();
+
+        if (l_size_index >= S_SIZE_HEADER_INDEX)
+        {
+            MappedByteBuffer l_index = f_channel_index.map(FileChannel.MapMode.READ_WRITE, 0, S_SIZE_HEADER_INDEX);
+            l_index.order(ByteOrder.LITTLE_ENDIAN);
+
+            int l_capacity = l_index.getInt(S_OFFSET_CAPACITY);
+            long l_length_indexed = l_index.getLong(S_OFFSET_LENGTH);
+
+            if (l_index.getInt(0) == S_MAGIC_INDEX && l_capacity >= S_CAPACITY_MIN && l_capacity <= S_CAPACITY_MAX &&
+                Integer.bitCount(l_capacity) == 1 &&
+                l_size_index == S_SIZE_HEADER_INDEX + (long)l_capacity * S_SIZE_SLOT &&
+                l_length_indexed >= SudokuPackedFormat.S_SIZE_HEADER && l_length_indexed <= l_length &&
+                (l_length_indexed - SudokuPackedFormat.S_SIZE_HEADER) % f_size_record == 0 &&
+                2 * f_count_records <= l_capacity)
+            {
+                f_index = f_channel_index.map(FileChannel.MapMode.READ_WRITE, 0, l_size_index);
+                f_index.order(ByteOrder.LITTLE_ENDIAN);
+                f_capacity = l_capacity;
+                f_count = (int)f_index.getLong(S_OFFSET_COUNT);
+
+                // As the table can hold every record, indexing the new ones never causes it to be rebuilt.
+                Replay(l_length_indexed);
+                return;
+            }
+
+        }
+
+        Rebuild(S_CAPACITY_MIN);
+    }
+
+    /* Auxiliary of Load, Compact, Insert
+     * Rebuilds the index, with (at least) the given capacity, from the data file; the capacity is increased until the
+       table can hold every record (at most half full), so that Replay never needs to grow it.
+     * The index's magic no. is only written once the table is consistent, so a crash during the rebuild causes it to
+       be rebuilt again when the store is next opened.
+    */
+    private void Rebuild(int a_capacity)
+        throws IOException
+    {
+        // Keep the table at most half full.
+        while (a_capacity < 2 * f_count_records && a_capacity < S_CAPACITY_MAX)
+        { a_capacity *= 2; }
+
+        long l_size_index = S_SIZE_HEADER_INDEX + (long)a_capacity * S_SIZE_SLOT;
+
+        f_channel_index.truncate(l_size_index);
+
+        f_index = f_channel_index.map(FileChannel.MapMode.READ_WRITE, 0, l_size_index);
+        f_index.order(ByteOrder.LITTLE_ENDIAN);
+
+        f_index.putInt(0, 0);
+
+        for (long i = 0; i < l_size_index; i += Long.BYTES)
+        { f_index.putLong((int)i, 0); }
+
+        f_capacity = a_capacity;
+        f_count = 0;
+
+        f_index.putInt(S_OFFSET_CAPACITY, a_capacity);
+
+        Replay(SudokuPackedFormat.S_SIZE_HEADER);
+
+        f_index.putInt(0, S_MAGIC_INDEX);
+    }
+
+    /* Auxiliary of Load, Rebuild
+     * Indexes the records of the data file from the given offset to its end (removing the keys of removal records).
+    */
+    private void Replay(long a_offset)
+        throws IOException
+    {
+        ByteBuffer l_buffer = ByteBuffer.allocate(f_size_record * S_RECORDS_PER_READ).order(ByteOrder.LITTLE_ENDIAN);
+
+        long l_length = f_channel_data.size();
+
+        while (a_offset < l_length)
+        {
+            l_buffer.clear();
+            l_buffer.limit((int)Math.min(l_buffer.capacity(), l_length - a_offset));
+
+            while (l_buffer.hasRemaining())
+            { f_channel_data.read(l_buffer, a_offset + l_buffer.position()); }
+
+            for (int i = 0; i < l_buffer.limit(); i += f_size_record)
+            {
+                SudokuSolutionCache.Key l_key = new SudokuSolutionCache.Key(l_buffer.getLong(i),
+                                                                            l_buffer.getLong(i + Long.BYTES));
+
+                if (l_buffer.get(i + S_SIZE_KEY) == S_STATUS_LIVE)
+                {
+                    int l_slot = Find(l_key);
+
+                    if (l_slot >= 0)
+                    { f_index.putLong(SlotOffset(l_slot) + S_OFFSET_RECORD, a_offset + i); }
+                    else
+                    { Insert(l_key, a_offset + i); }
+                }
+                else
+                {
+                    Delete(l_key);
+                }
+
+            }
+
+            a_offset += l_buffer.limit();
+
+            f_index.putLong(S_OFFSET_LENGTH, a_offset);
+        }
+
+    }
+
+    /* Auxiliary of Put
+     * Appends a record to the data file.
+
+     * Return Value:
+         > The offset of the record.
+    */
+    private long Append(SudokuSolutionCache.Key a_key, byte a_status, int[] a_solution)
+        throws IOException
+    {
+        long l_offset = SudokuPackedFormat.S_SIZE_HEADER + f_count_records * f_size_record;
+
+        f_record.clear();
+        f_record.putLong(a_key.GetHigh());
+        f_record.putLong(a_key.GetLow());
+        f_record.put(a_status);
+        f_format.Write(a_solution, f_record);
+        f_record.flip();
+
+        while (f_record.hasRemaining())
+        { f_channel_data.write(f_record, l_offset + f_record.position()); }
+
+        ++f_count_records;
+
+        return l_offset;
+    }
+
+    /* Auxiliary of Get
+     * Reads the record at the given offset of the data file into f_record (whose position is left at 0).
+    */
+    private void ReadRecord(long a_offset)
+        throws IOException
+    {
+        f_record.clear();
+
+        while (f_record.hasRemaining())
+        {
+            if (f_channel_data.read(f_record, a_offset + f_record.position()) < 0)
+            { throw new IOException("The file '" + f_path_data + "' ends before the record at " + a_offset + "."); }
+        }
+
+        f_record.flip();
+    }
+
+    /* Auxiliary of Get, Put, Remove, Compact, Replay
+     * Returns the slot of the given key in the index, or -1 if it's absent.
+    */
+    private int Find(SudokuSolutionCache.Key a_key)
+    {
+        int l_mask = f_capacity - 1;
+
+        for (int slot = (int)a_key.GetLow() & l_mask; ; slot = (slot + 1) & l_mask)
+        {
+            int l_offset = SlotOffset(slot);
+
+            if (f_index.getLong(l_offset + S_OFFSET_RECORD) == 0)
+            { return -1; }
+
+            if (f_index.getLong(l_offset) == a_key.GetHigh() &&
+                f_index.getLong(l_offset + Long.BYTES) == a_key.GetLow())
+            { return slot; }
+        }
+
+    }
+
+    /* Auxiliary of Put, Replay
+     * Adds the given key (which must be absent) to the index, growing the index if it would be more than half full.
+    */
+    private void Insert(SudokuSolutionCache.Key a_key, long a_offset_record)
+        throws IOException
+    {
+        if (2 * (f_count + 1) > f_capacity)
+        {
+            if (f_capacity == S_CAPACITY_MAX)
+            { throw new IOException("The store '" + f_path_data + "' is full."); }
+
+            // The record has already been appended, so the rebuild indexes it.
+            Rebuild(2 * f_capacity);
+            return;
+        }
+
+        int l_mask = f_capacity - 1;
+        int l_slot = (int)a_key.GetLow() & l_mask;
+
+        while (f_index.getLong(SlotOffset(l_slot) + S_OFFSET_RECORD) != 0)
+        { l_slot = (l_slot + 1) & l_mask; }
+
+        int l_offset = SlotOffset(l_slot);
+
+        f_index.putLong(l_offset, a_key.GetHigh());
+        f_index.putLong(l_offset + Long.BYTES, a_key.GetLow());
+        f_index.putLong(l_offset + S_OFFSET_RECORD, a_offset_record);
+
+        f_index.putLong(S_OFFSET_COUNT, ++f_count);
+    }
+
+    /* Auxiliary of Remove, Replay
+     * Removes the given key (if present) from the index; the keys after it in its run of slots are shifted back, so
+       that no key becomes unreachable (i.e. no 'tombstones' are needed).
+    */
+    private void Delete(SudokuSolutionCache.Key a_key)
+    {
+        int l_slot = Find(a_key);
+
+        if (l_slot < 0)
+        { return; }
+
+        int l_mask = f_capacity - 1;
+
+        for (int next = (l_slot + 1) & l_mask; f_index.getLong(SlotOffset(next) + S_OFFSET_RECORD) != 0;
+             next = (next + 1) & l_mask)
+        {
+            int l_home = (int)f_index.getLong(SlotOffset(next) + Long.BYTES) & l_mask;
+
+            // The key at 'next' can fill the gap if its home slot isn't (cyclically) after the gap.
+            if (((next - l_home) & l_mask) >= ((next - l_slot) & l_mask))
+            {
+                for (int i = 0; i < S_SIZE_SLOT; i += Long.BYTES)
+                { f_index.putLong(SlotOffset(l_slot) + i, f_index.getLong(SlotOffset(next) + i)); }
+
+                l_slot = next;
+            }
+
+        }
+
+        for (int i = 0; i < S_SIZE_SLOT; i += Long.BYTES)
+        { f_index.putLong(SlotOffset(l_slot) + i, 0); }
+
+        f_index.putLong(S_OFFSET_COUNT, --f_count);
+    }
+
+    /* Auxiliary of Find, Insert, Delete
+     * Returns the offset of the given slot in the index.
+    */
+    private static int SlotOffset(int a_slot)
+    {
+        return S_SIZE_HEADER_INDEX + a_slot * S_SIZE_SLOT;
+    }
+
+    /* Auxiliary of Load, Compact
+     * Writes the contents of the buffer to the end of the channel.
+    */
+    private static void Write(FileChannel a_channel, ByteBuffer a_buffer)
+        throws IOException
+    {
+        long l_position = a_channel.size();
+
+        while (a_buffer.hasRemaining())
+        { l_position += a_channel.write(a_buffer, l_position); }
+    }
+
+
+}
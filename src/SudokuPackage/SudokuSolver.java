@@ -0,0 +1,1027 @@
+
+package SudokuPackage;
+
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/* Sudoku Solver (Headless)
+ * An instance of this class solves sudokus that are stored in a flat primitive grid, independently of any GUI.
+ * The grid is an int array of length n*n, where the cell at (row, col) is located at index row * n + col. Each element
+   is either S_VALUE_EMPTY_CELL or a number from 1 to n.
+ * The geometry of the grid is the same as that supported by SudokuBoard: each box is f_width_box cells wide and
+   f_height_box cells high, and n is equal to f_width_box * f_height_box.
+ * SudokuBoard delegates to this class so that the search isn't slowed down by the repainting of its cells.
+ * The row, column, box, units and peers of each cell are looked up in the tables of the grid's SudokuGeometry (which
+   are shared by every solver of the same geometry), rather than computed.
+ * The values used by each row, column and box are tracked as bitsets (bit v - 1 represents value v), which are updated
+   as values are placed and removed; as such, checking whether a value can be placed is a single AND operation. A long
+   is wide enough for every grid SudokuBoard supports (n <= 49).
+ * The cell that is branched on at each step of the search is chosen by a SudokuCellSelector. To support this, the
+   solver also maintains (incrementally, as values are placed and removed) the set of empty cells, the no. of
+   candidates of each empty cell and the no. of empty peers of each empty cell.
+ * Before the search starts, and after every guess, the solver propagates constraints: it repeatedly fills 'naked
+   singles' (cells with one candidate) and 'hidden singles' (values with one possible cell in a row, column or box)
+   until neither remains. Every placement is recorded on a trail so that it can be undone when the search backtracks.
+ * The search is iterative: rather than recursing once per empty cell, it keeps an explicit stack (preallocated
+   primitive arrays) of the cell branched on at each depth, the values that have yet to be tried there, and the length
+   of the trail before the cell was filled. As such, the search allocates nothing, isn't limited by the size of the
+   thread's stack, and can be paused (see Search) and resumed from exactly where it stopped: e.g. to step through it,
+   or to continue past a solution to the next one.
+
+ * Class Composition:
+     (a). Enums (1)
+     (b). Fields (31)
+         (i). Static Fields (1)
+     (c). Constructors (2)
+     (d). Publics (24)
+         (i). Statics (4)
+         (ii). Accessors (12)
+         (iii). Mutators (1)
+     (e). Auxiliaries (15)
+*/
+public class SudokuSolver
+{
+
+// (a). Enums (1) ======================================================================================================
+
+    /*
+     * An enum to represent the outcome of a call to Search.
+    */
+    public enum SearchStatus
+    {
+        Solved,    // A solution was found (the grid contains it); calling Search again continues to the next one.
+        Exhausted, // There are no (more) solutions.
+        Paused     // The guess limit was reached before either of the above occurred.
+    }
+
+
+
+// (b). Fields (31) ====================================================================================================
+
+    /*
+     * The grid that is being solved (row-major).
+    */
+    private int f_grid[];
+
+    /*
+     * The width of each box in the grid (no. of cells).
+    */
+    private int f_width_box;
+
+    /*
+     * The height of each box in the grid (no. of cells).
+    */
+    private int f_height_box;
+
+    /*
+     * The dimension (width/height) of the grid: i.e. f_width_box * f_height_box.
+    */
+    private int f_size_grid;
+
+    /*
+     * The values that are used by each row (one bitset per row).
+    */
+    private long f_used_row[];
+
+    /*
+     * The values that are used by each column (one bitset per column).
+    */
+    private long f_used_col[];
+
+    /*
+     * The values that are used by each box (one bitset per box, ordered row-major).
+    */
+    private long f_used_box[];
+
+    /*
+     * The strategy that chooses which empty cell to branch on next.
+    */
+    private SudokuCellSelector f_selector;
+
+    /*
+     * The indexes of the empty cells; only the first f_count_empty elements are meaningful.
+    */
+    private int f_empty[];
+
+    /*
+     * The position of each empty cell within f_empty (the values of filled cells are meaningless).
+    */
+    private int f_position_empty[];
+
+    /*
+     * The no. of empty cells.
+    */
+    private int f_count_empty;
+
+    /*
+     * The no. of values that can be placed at each empty cell.
+    */
+    private int f_count_candidates[];
+
+    /*
+     * The no. of empty peers (cells that share a row, column or box) of each empty cell.
+    */
+    private int f_degree[];
+
+    /*
+     * The bitset that contains every value (bits 0 to n - 1).
+    */
+    private long f_values_all;
+
+    /*
+     * The cells that have been filled during the search, in the order in which they were filled.
+    */
+    private int f_trail[];
+
+    /*
+     * The no. of elements of f_trail that are meaningful.
+    */
+    private int f_count_trail;
+
+    /*
+     * A flag that, when true, indicates that constraints are propagated before the search and after every guess.
+    */
+    private boolean f_propagate;
+
+    /*
+     * The no. of cells that were filled by propagation during the most recent search.
+    */
+    private int f_count_propagated;
+
+    /*
+     * The no. of guesses (values placed by the search itself) made during the most recent search.
+    */
+    private long f_count_guesses;
+
+    /*
+     * The row, column and box of each cell (the tables of the grid's SudokuGeometry).
+    */
+    private int f_row_of[];
+    private int f_col_of[];
+    private int f_box_of[];
+
+    /*
+     * The cells of each unit (n per unit), and the peers of each cell (f_count_peers per cell).
+    */
+    private int f_unit_cells[];
+    private int f_peers[];
+    private int f_count_peers;
+
+    /*
+     * The cell branched on at each depth of the search.
+    */
+    private int f_stack_cell[];
+
+    /*
+     * The values that have yet to be tried at each depth of the search.
+    */
+    private long f_stack_candidates[];
+
+    /*
+     * The length of the trail at each depth of the search before the depth's cell was filled.
+    */
+    private int f_stack_mark[];
+
+    /*
+     * The no. of elements of the f_stack_ arrays that are meaningful.
+    */
+    private int f_depth;
+
+    /*
+     * A flag that, when true, indicates that the search is to branch on a new cell next; otherwise, it's to try the next
+       value of the cell at the top of the stack.
+    */
+    private boolean f_descend;
+
+
+// (b)(i). Static Fields (1) -------------------------------------------------------------------------------------------
+
+    // The value associated with an empty cell.
+    public static final int S_VALUE_EMPTY_CELL = 0;
+
+
+
+// (c). Constructors (2) ===============================================================================================
+
+    /*
+     * Constructs a solver that uses the minimum-remaining-values cell selector.
+
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public SudokuSolver(int a_width_box, int a_height_box)
+    {
+        this(a_width_box, a_height_box, new SudokuCellSelector.MinimumRemainingValues());
+    }
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_selector: the strategy that chooses which empty cell to branch on next.
+    */
+    public SudokuSolver(int a_width_box, int a_height_box, SudokuCellSelector a_selector)
+    {
+        if (a_width_box < 1 || a_height_box < 1 || a_width_box * a_height_box > Long.SIZE - 1)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_size_grid = a_width_box * a_height_box;
+        f_values_all = (1L << f_size_grid) - 1;
+
+        f_selector = a_selector;
+        f_propagate = true;
+
+        f_used_row = new long[f_size_grid];
+        f_used_col = new long[f_size_grid];
+        f_used_box = new long[f_size_grid];
+
+        int l_count_cells = f_size_grid * f_size_grid;
+
+        f_empty = new int[l_count_cells];
+        f_position_empty = new int[l_count_cells];
+        f_count_candidates = new int[l_count_cells];
+        f_degree = new int[l_count_cells];
+        f_trail = new int[l_count_cells];
+
+        f_stack_cell = new int[l_count_cells];
+        f_stack_candidates = new long[l_count_cells];
+        f_stack_mark = new int[l_count_cells];
+
+        SudokuGeometry l_geometry = SudokuGeometry.Of(a_width_box, a_height_box);
+
+        f_row_of = l_geometry.RowTable();
+        f_col_of = l_geometry.ColTable();
+        f_box_of = l_geometry.BoxTable();
+        f_unit_cells = l_geometry.UnitCellsTable();
+        f_peers = l_geometry.PeersTable();
+        f_count_peers = l_geometry.GetCountPeers();
+    }
+
+
+
+// (d). Publics (24) ===================================================================================================
+
+    /*
+     * This method attempts to solve the given sudoku in place.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); on success, it contains the solution.
+
+     * Return Value:
+         > A boolean corresponding to whether the sudoku was solved; if false (incl. when the clues violate the rules of
+           sudoku), a_grid is left as it was.
+    */
+    public boolean Solve(int[] a_grid)
+    {
+        boolean l_solved = Start(a_grid) && Search(Long.MAX_VALUE) == SearchStatus.Solved;
+
+        // Leave the grid as it was if there's no solution.
+        if (!l_solved)
+        { Undo(0); }
+
+        return l_solved;
+    }
+
+    /*
+     * This method counts the solutions of the given sudoku, stopping as soon as a_limit solutions have been found (e.g.
+       a limit of 2 is sufficient to determine whether a sudoku has a unique solution).
+     * The search is the same as that of Solve, and, like it, allocates nothing; as such, a single instance can vet any
+       number of sudokus (of the same geometry) cheaply. a_grid is left as it was.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_limit: the maximum no. of solutions to count.
+
+     * Return Value:
+         > The no. of solutions (at most a_limit); 0 if the clues violate the rules of sudoku.
+    */
+    public long CountSolutions(int[] a_grid, long a_limit)
+    {
+        long l_count = 0;
+
+        if (Start(a_grid))
+        {
+            while (l_count < a_limit && Search(Long.MAX_VALUE) == SearchStatus.Solved)
+            { ++l_count; }
+        }
+
+        Undo(0);
+
+        return l_count;
+    }
+
+    /*
+     * This method is used to indicate whether the given sudoku has exactly one solution. a_grid is left as it was.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+    */
+    public boolean HasUniqueSolution(int[] a_grid)
+    {
+        return CountSolutions(a_grid, 2) == 1;
+    }
+
+    /*
+     * This method prepares a search of the given sudoku: the solver's state is initialised from the grid and constraints
+       are propagated. The search itself is performed by Search.
+     * The grid is modified in place as the search progresses.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+
+     * Return Value:
+         > A boolean that, if false, indicates that the sudoku has no solution because the clues violate the rules of
+           sudoku or propagation found a contradiction (in which case Search mustn't be called).
+    */
+    public boolean Start(int[] a_grid)
+    {
+        return Start(a_grid, true);
+    }
+
+    /*
+     * This method performs (or resumes) the search that was prepared by Start.
+     * The search stops when a solution is found, when there are no (more) solutions, or when a_max_guesses guesses
+       have been made during this call; in each case, a subsequent call continues from exactly where it stopped.
+
+     * Parameters:
+         > a_max_guesses: the maximum no. of guesses to make during this call.
+
+     * Return Value:
+         > The reason the search stopped.
+    */
+    public SearchStatus Search(long a_max_guesses)
+    {
+        long l_count_guesses = 0;
+
+        while (true)
+        {
+            // Branch on a new cell; if there's none, the sudoku is solved.
+            if (f_descend && !Branch())
+            {
+                // The next call is to continue from the next value of the cell at the top of the stack.
+                f_descend = false;
+                return SearchStatus.Solved;
+            }
+
+            if (f_depth == 0)
+            { return SearchStatus.Exhausted; }
+
+            if (l_count_guesses == a_max_guesses)
+            { return SearchStatus.Paused; }
+
+            int l_top = f_depth - 1;
+
+            // Undo the previous value of the cell at the top of the stack (and everything propagated from it).
+            Undo(f_stack_mark[l_top]);
+
+            long l_candidates = f_stack_candidates[l_top];
+
+            if (l_candidates == 0)
+            {
+                // Every value has been tried; return to the previous depth.
+                --f_depth;
+                continue;
+            }
+
+            long l_bit = Long.lowestOneBit(l_candidates);
+            f_stack_candidates[l_top] = l_candidates ^ l_bit;
+
+            ++f_count_guesses;
+            ++l_count_guesses;
+
+            Place(f_stack_cell[l_top], l_bit);
+
+            // Only descend if the guess doesn't (obviously) lead to a contradiction.
+            f_descend = Propagate();
+        }
+
+    }
+
+    /*
+     * This method splits off part of the remaining search and gives it to another solver (which can then search it
+       concurrently, e.g. on another thread): afterwards, the two searches cover what this one would have covered.
+     * The part that's split off is (up to) half of the untried values of the shallowest cell on the stack that has any,
+       as that's where the largest untried subtrees are. If the search has yet to branch, it branches first.
+
+     * Parameters:
+         > a_solver: the solver that's to search the part that's split off (it must have the same geometry).
+         > a_grid: the grid that a_solver is to search (length n*n); it's overwritten.
+
+     * Return Value:
+         > A boolean that, if false, indicates that there was nothing to split off (a_solver isn't modified).
+    */
+    public boolean SplitInto(SudokuSolver a_solver, int[] a_grid)
+    {
+        if (f_descend && f_depth == 0 && !Branch())
+        {
+            // Unable to branch, as the sudoku is solved.
+            f_descend = true;
+            return false;
+        }
+
+        for (int depth = 0; depth < f_depth; ++depth)
+        {
+            long l_candidates = f_stack_candidates[depth];
+
+            if (l_candidates == 0)
+            { continue; }
+
+            // Take the upper half of the untried values (or the only one).
+            long l_taken = l_candidates;
+
+            for (int i = Long.bitCount(l_candidates) / 2; i > 0; --i)
+            { l_taken &= l_taken - 1; }
+
+            f_stack_candidates[depth] = l_candidates & ~l_taken;
+
+            // The grid as it was before the cell at this depth was filled.
+            System.arraycopy(f_grid, 0, a_grid, 0, f_grid.length);
+
+            for (int i = f_stack_mark[depth]; i < f_count_trail; ++i)
+            { a_grid[f_trail[i]] = S_VALUE_EMPTY_CELL; }
+
+            a_solver.Start(a_grid, f_stack_cell[depth], l_taken);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /*
+     * This method prepares a search of the given sudoku that's restricted to the given values of the given cell: i.e.
+       the search branches on the cell first, and only tries the given values (those that can't be placed are ignored).
+     * Unlike Start(int[]), constraints aren't propagated until a value has been placed.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_index: the (empty) cell to branch on first.
+         > a_candidates: the values (as a bitset) to try at the cell.
+
+     * Return Value:
+         > A boolean that, if false, indicates that the clues violate the rules of sudoku.
+    */
+    public boolean Start(int[] a_grid, int a_index, long a_candidates)
+    {
+        if (!Start(a_grid, false))
+        { return false; }
+
+        f_stack_cell[0] = a_index;
+        f_stack_candidates[0] = a_candidates & Candidates(a_index);
+        f_stack_mark[0] = f_count_trail;
+        f_depth = 1;
+
+        f_descend = false;
+
+        return true;
+    }
+
+
+// (d)(i). Statics (4) -------------------------------------------------------------------------------------------------
+
+    /*
+     * A convenience method that solves the given sudoku in place.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public static boolean Solve(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        return new SudokuSolver(a_width_box, a_height_box).Solve(a_grid);
+    }
+
+    /*
+     * This method is used to indicate whether the given grid adheres to the rules of sudoku: i.e. whether no value
+       occurs more than once in any row, column or box (empty cells are allowed).
+     * A single pass is made over the grid, during which each row's, column's and box's used values are recorded as
+       bitsets.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public static boolean IsValid(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        return new SudokuSolver(a_width_box, a_height_box).IsValid(a_grid);
+    }
+
+    /*
+     * This method is used to indicate whether the given grid is solved: i.e. whether it's valid and has no empty cells.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public static boolean IsSolved(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        for (int value : a_grid)
+        {
+            if (value == S_VALUE_EMPTY_CELL)
+            { return false; }
+        }
+
+        return IsValid(a_grid, a_width_box, a_height_box);
+    }
+
+    /*
+     * Returns a (lazy) stream of the solutions of the given sudoku: each solution is only searched for when the stream
+       requires it, and no solutions are buffered. The stream can be made parallel, in which case the search is split
+       between threads (see SplitInto). The order of the solutions is unspecified.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); it isn't modified.
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public static Stream<int[]> StreamSolutions(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        return StreamSupport.stream(new SudokuSolutionSpliterator(a_grid.clone(), a_width_box, a_height_box), false);
+    }
+
+
+// (d)(ii). Accessors (12) ----------------------------------------------------------------------------------------------
+
+    /* Accessor of f_width_box
+    */
+    public int GetWidthBox()
+    {
+        return f_width_box;
+    }
+
+    /* Accessor of f_height_box
+    */
+    public int GetHeightBox()
+    {
+        return f_height_box;
+    }
+
+    /* Accessor of f_size_grid
+    */
+    public int GetSizeGrid()
+    {
+        return f_size_grid;
+    }
+
+    /* Accessor of f_grid
+     * Returns the value of the cell at the given index (only meaningful during a search).
+    */
+    public int GetValue(int a_index)
+    {
+        return f_grid[a_index];
+    }
+
+    /* Accessor of f_count_empty
+    */
+    public int GetCountEmpty()
+    {
+        return f_count_empty;
+    }
+
+    /* Accessor of f_empty
+     * Returns the index of the a_i-th empty cell (0 <= a_i < GetCountEmpty()); the order is arbitrary.
+    */
+    public int GetEmptyCell(int a_i)
+    {
+        return f_empty[a_i];
+    }
+
+    /* Accessor of f_count_candidates
+     * Returns the no. of values that can be placed at the given empty cell.
+    */
+    public int GetCountCandidates(int a_index)
+    {
+        return f_count_candidates[a_index];
+    }
+
+    /* Accessor of f_used_row, f_used_col, f_used_box
+     * Returns the values (as a bitset; bit v - 1 represents value v) that can be placed at the given empty cell.
+    */
+    public long GetCandidates(int a_index)
+    {
+        return Candidates(a_index);
+    }
+
+    /* Accessor of f_degree
+     * Returns the no. of empty peers of the given empty cell.
+    */
+    public int GetDegree(int a_index)
+    {
+        return f_degree[a_index];
+    }
+
+    /* Accessor of f_count_propagated
+     * Returns the no. of cells that were filled by propagation (rather than guessed) during the most recent search.
+    */
+    public int GetCountPropagated()
+    {
+        return f_count_propagated;
+    }
+
+    /* Accessor of f_count_guesses
+     * Returns the no. of guesses made during the most recent search.
+    */
+    public long GetCountGuesses()
+    {
+        return f_count_guesses;
+    }
+
+    /* Accessor of f_depth
+     * Returns the no. of cells on the search's stack: i.e. the no. of guesses that lead to the current state.
+    */
+    public int GetDepth()
+    {
+        return f_depth;
+    }
+
+
+// (d)(iii). Mutators (1) ----------------------------------------------------------------------------------------------
+
+    /* Mutator of f_propagate
+     * Sets whether constraints are propagated (by default, they are).
+    */
+    public void SetPropagate(boolean a_propagate)
+    {
+        f_propagate = a_propagate;
+    }
+
+
+
+// (e). Auxiliaries (15) ================================================================================================
+
+    /* Auxiliary of Start (both)
+     * This method initialises the solver's state from the given grid, and (optionally) propagates constraints.
+    */
+    private boolean Start(int[] a_grid, boolean a_propagate)
+    {
+        if (a_grid.length != f_size_grid * f_size_grid)
+        { throw new IllegalArgumentException("The grid must contain " + (f_size_grid * f_size_grid) + " cells."); }
+
+        f_grid = a_grid;
+
+        f_count_trail = 0;
+        f_count_propagated = 0;
+        f_count_guesses = 0;
+        f_depth = 0;
+
+        f_descend = Load() && (!a_propagate || Propagate());
+
+        return f_descend;
+    }
+
+    /* Auxiliary of Search, SplitInto
+     * This method pushes the cell chosen by f_selector (and all of its candidates) onto the stack; the search will then
+       try its values.
+
+     * Return Value:
+         > A boolean that, if false, indicates that there are no empty cells.
+    */
+    private boolean Branch()
+    {
+        int l_index = f_selector.SelectCell(this);
+
+        if (l_index == -1)
+        { return false; }
+
+        f_stack_cell[f_depth] = l_index;
+        f_stack_candidates[f_depth] = Candidates(l_index);
+        f_stack_mark[f_depth] = f_count_trail;
+        ++f_depth;
+
+        f_descend = false;
+
+        return true;
+    }
+
+    /* Auxiliary of Start, IsValid
+     * This method initialises the bitsets and the selection state from f_grid.
+
+     * Return Value:
+         > A boolean that, if false, indicates that a value is out of range or occurs more than once in a row, column or
+           box.
+    */
+    private boolean Load()
+    {
+        Arrays.fill(f_used_row, 0L);
+        Arrays.fill(f_used_col, 0L);
+        Arrays.fill(f_used_box, 0L);
+
+        f_count_empty = 0;
+
+        for (int i = 0; i < f_grid.length; ++i)
+        {
+            if (f_grid[i] == S_VALUE_EMPTY_CELL)
+            {
+                f_position_empty[i] = f_count_empty;
+                f_empty[f_count_empty++] = i;
+                continue;
+            }
+
+            if (f_grid[i] < 1 || f_grid[i] > f_size_grid)
+            { return false; }
+
+            int l_row = f_row_of[i];
+            int l_col = f_col_of[i];
+            int l_box = f_box_of[i];
+
+            long l_bit = 1L << (f_grid[i] - 1);
+
+            if (((f_used_row[l_row] | f_used_col[l_col] | f_used_box[l_box]) & l_bit) != 0)
+            { return false; }
+
+            f_used_row[l_row] |= l_bit;
+            f_used_col[l_col] |= l_bit;
+            f_used_box[l_box] |= l_bit;
+        }
+
+        // The candidate count and degree of each empty cell.
+        for (int i = 0; i < f_count_empty; ++i)
+        {
+            int l_index = f_empty[i];
+
+            f_count_candidates[l_index] = Long.bitCount(Candidates(l_index));
+            f_degree[l_index] = 0;
+        }
+
+        for (int i = 0; i < f_count_empty; ++i)
+        {
+            UpdatePeers(f_empty[i], 0L, 0, 1);
+        }
+
+        return true;
+    }
+
+    /* Auxiliary of IsValid (static)
+    */
+    private boolean IsValid(int[] a_grid)
+    {
+        f_grid = a_grid;
+
+        boolean l_valid = Load();
+
+        f_grid = null;
+
+        return l_valid;
+    }
+
+    /* Auxiliary of Search, Load
+     * Returns the values that can be placed at the given (empty) cell.
+    */
+    private long Candidates(int a_index)
+    {
+        return ~(f_used_row[f_row_of[a_index]] | f_used_col[f_col_of[a_index]] | f_used_box[f_box_of[a_index]]) &
+               f_values_all;
+    }
+
+    /* Auxiliary of Start, Search
+     * This method fills naked and hidden singles until there are none left (or a contradiction is found).
+
+     * Return Value:
+         > A boolean that, if false, indicates that a contradiction was found: i.e. an empty cell has no candidates, or
+           a value has no possible cell within a row, column or box.
+    */
+    private boolean Propagate()
+    {
+        if (!f_propagate)
+        { return true; }
+
+        int l_count_trail_initial = f_count_trail;
+
+        // A flag that, when true, indicates that a cell was filled during the current pass.
+        boolean l_progress = true;
+
+        while (l_progress && f_count_empty > 0)
+        {
+            int l_count_trail_pass = f_count_trail;
+
+            // Naked singles (iterated in reverse, as filling a cell moves the last empty cell into its position).
+            for (int i = f_count_empty - 1; i >= 0; --i)
+            {
+                if (i >= f_count_empty)
+                { continue; }
+
+                int l_index = f_empty[i];
+
+                if (f_count_candidates[l_index] > 1)
+                { continue; }
+
+                long l_candidates = Candidates(l_index);
+
+                if (l_candidates == 0)
+                { return Propagated(l_count_trail_initial, false); }
+
+                Place(l_index, l_candidates);
+            }
+
+            // Hidden singles.
+            for (int unit = 0; unit < 3 * f_size_grid; ++unit)
+            {
+                if (!PropagateHiddenSingles(unit))
+                { return Propagated(l_count_trail_initial, false); }
+            }
+
+            l_progress = f_count_trail != l_count_trail_pass;
+        }
+
+        return Propagated(l_count_trail_initial, true);
+    }
+
+    /* Auxiliary of Propagate
+     * Records the no. of cells filled by a call to Propagate, and returns a_consistent.
+    */
+    private boolean Propagated(int a_count_trail_initial, boolean a_consistent)
+    {
+        f_count_propagated += f_count_trail - a_count_trail_initial;
+
+        return a_consistent;
+    }
+
+    /* Auxiliary of Propagate
+     * This method fills the hidden singles of the given unit.
+     * For each value, it's determined (via bitsets) whether the value is a candidate of at least one, and of at least
+       two, of the unit's empty cells.
+
+     * Parameters:
+         > a_unit: the unit: rows are 0 to n - 1, columns n to 2n - 1, and boxes 2n to 3n - 1.
+
+     * Return Value:
+         > A boolean that, if false, indicates that a value has no possible cell within the unit.
+    */
+    private boolean PropagateHiddenSingles(int a_unit)
+    {
+        long l_once = 0;
+        long l_twice = 0;
+
+        for (int i = 0; i < f_size_grid; ++i)
+        {
+            int l_index = UnitCell(a_unit, i);
+
+            if (f_grid[l_index] != S_VALUE_EMPTY_CELL)
+            {
+                l_once |= 1L << (f_grid[l_index] - 1);
+                continue;
+            }
+
+            long l_candidates = Candidates(l_index);
+
+            l_twice |= l_once & l_candidates;
+            l_once |= l_candidates;
+        }
+
+        if (l_once != f_values_all)
+        { return false; }
+
+        // The values with exactly one possible cell (the values that are used by the unit are in l_once only once).
+        long l_singles = l_once & ~l_twice & ~UsedByUnit(a_unit);
+
+        while (l_singles != 0)
+        {
+            long l_bit = Long.lowestOneBit(l_singles);
+            l_singles ^= l_bit;
+
+            // Find the value's cell (a previous placement may have removed the value from it).
+            int l_index_single = -1;
+
+            for (int i = 0; i < f_size_grid && l_index_single == -1; ++i)
+            {
+                int l_index = UnitCell(a_unit, i);
+
+                if (f_grid[l_index] == S_VALUE_EMPTY_CELL && (Candidates(l_index) & l_bit) != 0)
+                { l_index_single = l_index; }
+            }
+
+            if (l_index_single == -1)
+            { return false; }
+
+            Place(l_index_single, l_bit);
+        }
+
+        return true;
+    }
+
+    /* Auxiliary of PropagateHiddenSingles
+     * Returns the index of the a_i-th cell (0 <= a_i < n) of the given unit.
+    */
+    private int UnitCell(int a_unit, int a_i)
+    {
+        return f_unit_cells[a_unit * f_size_grid + a_i];
+    }
+
+    /* Auxiliary of PropagateHiddenSingles
+     * Returns the values that are used by the given unit.
+    */
+    private long UsedByUnit(int a_unit)
+    {
+        if (a_unit < f_size_grid)
+        { return f_used_row[a_unit]; }
+
+        if (a_unit < 2 * f_size_grid)
+        { return f_used_col[a_unit - f_size_grid]; }
+
+        return f_used_box[a_unit - 2 * f_size_grid];
+    }
+
+    /* Auxiliary of Search, Propagate
+     * Places the value represented by a_bit at the given (empty) cell, and records the cell on the trail.
+     * Before the bitsets are updated, each empty peer that could hold the value loses a candidate, and every empty peer
+       loses a unit of degree.
+    */
+    private void Place(int a_index, long a_bit)
+    {
+        UpdatePeers(a_index, a_bit, -1, -1);
+
+        int l_row = f_row_of[a_index];
+        int l_col = f_col_of[a_index];
+        int l_box = f_box_of[a_index];
+
+        f_grid[a_index] = Long.numberOfTrailingZeros(a_bit) + 1;
+
+        f_used_row[l_row] |= a_bit;
+        f_used_col[l_col] |= a_bit;
+        f_used_box[l_box] |= a_bit;
+
+        // Remove the cell from the set of empty cells (swap it with the last one).
+        int l_position = f_position_empty[a_index];
+        int l_index_last = f_empty[--f_count_empty];
+        f_empty[l_position] = l_index_last;
+        f_position_empty[l_index_last] = l_position;
+
+        f_trail[f_count_trail++] = a_index;
+    }
+
+    /* Auxiliary of Solve, CountSolutions, Search
+     * Removes the values of the cells on the trail until the trail's length is a_count_trail.
+    */
+    private void Undo(int a_count_trail)
+    {
+        while (f_count_trail > a_count_trail)
+        {
+            int l_index = f_trail[--f_count_trail];
+
+            Remove(l_index, 1L << (f_grid[l_index] - 1));
+        }
+
+    }
+
+    /* Auxiliary of Undo
+     * Removes the value represented by a_bit from the given cell: i.e. undoes Place (excl. the trail).
+    */
+    private void Remove(int a_index, long a_bit)
+    {
+        int l_row = f_row_of[a_index];
+        int l_col = f_col_of[a_index];
+        int l_box = f_box_of[a_index];
+
+        f_grid[a_index] = S_VALUE_EMPTY_CELL;
+
+        f_used_row[l_row] &= ~a_bit;
+        f_used_col[l_col] &= ~a_bit;
+        f_used_box[l_box] &= ~a_bit;
+
+        // Return the cell to the set of empty cells.
+        f_position_empty[a_index] = f_count_empty;
+        f_empty[f_count_empty++] = a_index;
+
+        UpdatePeers(a_index, a_bit, 1, 1);
+    }
+
+    /* Auxiliary of Place, Remove, Load
+     * Updates the candidate count and degree of each empty peer of the given cell.
+
+     * Parameters:
+         > a_index: the cell whose peers are to be updated.
+         > a_bit: the value whose availability has changed; a peer's candidate count only changes if the value isn't
+                  used by any of the peer's units (according to the current bitsets).
+         > a_delta_candidates: the change to apply to the candidate counts.
+         > a_delta_degree: the change to apply to the degrees.
+    */
+    private void UpdatePeers(int a_index, long a_bit, int a_delta_candidates, int a_delta_degree)
+    {
+        for (int i = a_index * f_count_peers, end = i + f_count_peers; i < end; ++i)
+        { UpdatePeer(f_peers[i], a_bit, a_delta_candidates, a_delta_degree); }
+    }
+
+    /* Auxiliary of UpdatePeers
+    */
+    private void UpdatePeer(int a_index, long a_bit, int a_delta_candidates, int a_delta_degree)
+    {
+        if (f_grid[a_index] != S_VALUE_EMPTY_CELL)
+        { return; }
+
+        f_degree[a_index] += a_delta_degree;
+
+        if ((Candidates(a_index) & a_bit) != 0)
+        { f_count_candidates[a_index] += a_delta_candidates; }
+    }
+
+
+}
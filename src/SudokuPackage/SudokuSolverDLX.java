@@ -0,0 +1,527 @@
+
+package SudokuPackage;
+
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/* Sudoku Solver (Dancing Links)
+ * An instance of this class solves sudokus by encoding them as an exact-cover problem and solving that problem with
+   Knuth's Algorithm X, implemented via 'dancing links'.
+ * The exact-cover matrix has a row for each (cell, value) placement and a column for each constraint, of which there
+   are four kinds: each cell holds one value, and each row, column and box holds each value once. Each matrix row thus
+   has exactly four nodes.
+ * Grids use the same flat, row-major representation (and box geometry) as SudokuSolver.
+ * The matrix is built once (in the constructor) and is restored to its original state after each search, so that a
+   single instance can solve any number of puzzles of the same geometry without allocating. All nodes, including the
+   column headers, live in parallel int arrays: node 0 is the root, nodes 1 to f_count_cols are the column headers,
+   and the four nodes of matrix row p are f_count_cols + 1 + 4p to f_count_cols + 4 + 4p (p = cell * n + value - 1).
+ * A search can be cancelled cooperatively from another thread via the flag set by SetCancelFlag.
+
+ * Class Composition:
+     (a). Fields (16)
+         (i). Static Fields (1)
+     (b). Constructors (1)
+     (c). Publics (5)
+         (i). Statics (1)
+         (ii). Accessors (1)
+         (iii). Mutators (1)
+     (d). Auxiliaries (9)
+*/
+public class SudokuSolverDLX
+{
+
+// (a). Fields (16) ====================================================================================================
+
+    /*
+     * The width of each box in the grid (no. of cells).
+    */
+    private int f_width_box;
+
+    /*
+     * The height of each box in the grid (no. of cells).
+    */
+    private int f_height_box;
+
+    /*
+     * The dimension (width/height) of the grid: i.e. f_width_box * f_height_box.
+    */
+    private int f_size_grid;
+
+    /*
+     * The no. of columns (constraints) in the matrix: 4 * n * n.
+    */
+    private int f_count_cols;
+
+    /*
+     * The left, right, up and down links of each node.
+    */
+    private int f_left[];
+    private int f_right[];
+    private int f_up[];
+    private int f_down[];
+
+    /*
+     * The column header of each node (a column header's column is itself).
+    */
+    private int f_col[];
+
+    /*
+     * The no. of (uncovered) nodes in each column; only the elements of the column headers are meaningful.
+    */
+    private int f_size_col[];
+
+    /*
+     * The node chosen at each level of the search (or, for a level that has yet to choose a node, the column header
+       whose rows are to be tried).
+    */
+    private int f_choice[];
+
+    /*
+     * The first node of the matrix row of each clue that has been selected (in the order in which they were selected).
+    */
+    private int f_clues[];
+
+    /*
+     * The no. of elements of f_clues that are meaningful.
+    */
+    private int f_count_clues;
+
+    /*
+     * The grid that is being solved (row-major).
+    */
+    private int f_grid[];
+
+    /*
+     * A flag that, when set (by another thread), indicates that the current search is to stop; may be null.
+    */
+    private AtomicBoolean f_cancel;
+
+
+// (a)(i). Static Fields (1) -------------------------------------------------------------------------------------------
+
+    // The no. of search steps between checks of f_cancel (must be a power of two).
+    private static final int S_STEPS_PER_CHECK = 1024;
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public SudokuSolverDLX(int a_width_box, int a_height_box)
+    {
+        if (a_width_box < 1 || a_height_box < 1)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_size_grid = a_width_box * a_height_box;
+
+        int l_count_cells = f_size_grid * f_size_grid;
+
+        f_count_cols = 4 * l_count_cells;
+
+        int l_count_nodes = 1 + f_count_cols + 4 * l_count_cells * f_size_grid;
+
+        f_left = new int[l_count_nodes];
+        f_right = new int[l_count_nodes];
+        f_up = new int[l_count_nodes];
+        f_down = new int[l_count_nodes];
+        f_col = new int[l_count_nodes];
+        f_size_col = new int[1 + f_count_cols];
+
+        f_choice = new int[l_count_cells];
+        f_clues = new int[l_count_cells];
+
+        BuildMatrix();
+    }
+
+
+
+// (c). Publics (5) ====================================================================================================
+
+    /*
+     * This method attempts to solve the given sudoku in place.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); on success, it contains the solution.
+
+     * Return Value:
+         > A boolean corresponding to whether the sudoku was solved; if false (incl. when the clues violate the rules of
+           sudoku), a_grid is left as it was.
+    */
+    public boolean Solve(int[] a_grid)
+    {
+        return Search(a_grid, 1, true) == 1;
+    }
+
+    /*
+     * This method counts the solutions of the given sudoku, stopping once a_limit solutions have been found (e.g. a
+       limit of 2 is sufficient to determine whether a sudoku has a unique solution).
+     * a_grid isn't modified.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_limit: the maximum no. of solutions to count.
+
+     * Return Value:
+         > The no. of solutions (at most a_limit); 0 if the clues violate the rules of sudoku. If the search was
+           cancelled, the no. found before it was cancelled.
+    */
+    public long CountSolutions(int[] a_grid, long a_limit)
+    {
+        return Search(a_grid, a_limit, false);
+    }
+
+
+// (c)(i). Statics (1) -------------------------------------------------------------------------------------------------
+
+    /*
+     * A convenience method that solves the given sudoku in place.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public static boolean Solve(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        return new SudokuSolverDLX(a_width_box, a_height_box).Solve(a_grid);
+    }
+
+
+// (c)(ii). Accessors (1) ----------------------------------------------------------------------------------------------
+
+    /* Accessor of f_size_grid
+    */
+    public int GetSizeGrid()
+    {
+        return f_size_grid;
+    }
+
+
+// (c)(iii). Mutators (1) ----------------------------------------------------------------------------------------------
+
+    /* Mutator of f_cancel
+     * Sets the flag that, once set, cancels the current (and any subsequent) search; null disables cancellation.
+    */
+    public void SetCancelFlag(AtomicBoolean a_cancel)
+    {
+        f_cancel = a_cancel;
+    }
+
+
+
+// (d). Auxiliaries (9) ================================================================================================
+
+    /* Auxiliary of SudokuSolverDLX
+     * This method links together the column headers and the nodes of every matrix row.
+    */
+    private void BuildMatrix()
+    {
+        // The column headers form a circular list with the root.
+        for (int i = 0; i <= f_count_cols; ++i)
+        {
+            f_left[i] = i == 0 ? f_count_cols : i - 1;
+            f_right[i] = i == f_count_cols ? 0 : i + 1;
+            f_up[i] = i;
+            f_down[i] = i;
+            f_col[i] = i;
+            f_size_col[i] = 0;
+        }
+
+        int l_count_cells = f_size_grid * f_size_grid;
+
+        int l_node = f_count_cols + 1;
+
+        SudokuGeometry l_geometry = SudokuGeometry.Of(f_width_box, f_height_box);
+
+        for (int cell = 0; cell < l_count_cells; ++cell)
+        {
+            int l_row = l_geometry.RowOf(cell);
+            int l_col = l_geometry.ColOf(cell);
+            int l_box = l_geometry.BoxOf(cell);
+
+            for (int value = 0; value < f_size_grid; ++value)
+            {
+                // The four constraints satisfied by placing (value + 1) at the cell.
+                AppendNode(l_node    , 1 + cell);
+                AppendNode(l_node + 1, 1 + l_count_cells + l_row * f_size_grid + value);
+                AppendNode(l_node + 2, 1 + 2 * l_count_cells + l_col * f_size_grid + value);
+                AppendNode(l_node + 3, 1 + 3 * l_count_cells + l_box * f_size_grid + value);
+
+                // Link the four nodes into a circular list.
+                for (int i = 0; i < 4; ++i)
+                {
+                    f_left[l_node + i] = l_node + (i + 3) % 4;
+                    f_right[l_node + i] = l_node + (i + 1) % 4;
+                }
+
+                l_node += 4;
+            }
+
+        }
+
+    }
+
+    /* Auxiliary of BuildMatrix
+     * Appends the given node to the bottom of the given column.
+    */
+    private void AppendNode(int a_node, int a_col)
+    {
+        f_col[a_node] = a_col;
+
+        f_up[a_node] = f_up[a_col];
+        f_down[a_node] = a_col;
+        f_down[f_up[a_col]] = a_node;
+        f_up[a_col] = a_node;
+
+        ++f_size_col[a_col];
+    }
+
+    /* Auxiliary of Solve, CountSolutions
+     * This method performs the search.
+     * The clues' matrix rows are selected first; the search (Algorithm X) then proceeds iteratively, with the node
+       chosen at each level stored in f_choice. Finally, the matrix is restored to its original state.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_limit: the no. of solutions after which the search stops.
+         > a_write: a flag that, when true, indicates that the first solution found is to be written to a_grid.
+
+     * Return Value:
+         > The no. of solutions found (at most a_limit).
+    */
+    private long Search(int[] a_grid, long a_limit, boolean a_write)
+    {
+        if (a_grid.length != f_size_grid * f_size_grid)
+        { throw new IllegalArgumentException("The grid must contain " + (f_size_grid * f_size_grid) + " cells."); }
+
+        f_grid = a_grid;
+
+        long l_count = 0;
+
+        int l_level = 0;
+
+        if (SelectClues() && a_limit > 0)
+        {
+            // A flag that, when true, indicates that the search is to descend to a new level; otherwise, it's to
+            // return to the previous level.
+            boolean l_descend = true;
+
+            // The no. of iterations performed (used to periodically check f_cancel).
+            int l_steps = 0;
+
+            while (true)
+            {
+                if ((++l_steps & (S_STEPS_PER_CHECK - 1)) == 0 && f_cancel != null && f_cancel.get())
+                { break; }
+
+                if (l_descend)
+                {
+                    // If every column is covered, the chosen rows form a solution.
+                    if (f_right[0] == 0)
+                    {
+                        if (l_count++ == 0 && a_write)
+                        { WriteSolution(l_level); }
+
+                        if (l_count >= a_limit)
+                        { break; }
+
+                        l_descend = false;
+                        continue;
+                    }
+
+                    int l_col = ChooseColumn();
+
+                    Cover(l_col);
+
+                    f_choice[l_level] = l_col;
+                }
+                else
+                {
+                    if (l_level == 0)
+                    { break; }
+
+                    // Deselect the row that was chosen at the previous level.
+                    int l_node = f_choice[--l_level];
+
+                    for (int j = f_left[l_node]; j != l_node; j = f_left[j])
+                    { Uncover(f_col[j]); }
+                }
+
+                // Try the next row of the current level's column.
+                int l_node = f_down[f_choice[l_level]];
+
+                if (l_node == f_col[l_node])
+                {
+                    // Every row has been tried.
+                    Uncover(l_node);
+
+                    l_descend = false;
+                    continue;
+                }
+
+                f_choice[l_level] = l_node;
+
+                for (int j = f_right[l_node]; j != l_node; j = f_right[j])
+                { Cover(f_col[j]); }
+
+                ++l_level;
+
+                l_descend = true;
+            }
+
+        }
+
+        // Unwind any levels that remain (i.e. if the search stopped early).
+        while (l_level > 0)
+        {
+            int l_node = f_choice[--l_level];
+
+            for (int j = f_left[l_node]; j != l_node; j = f_left[j])
+            { Uncover(f_col[j]); }
+
+            Uncover(f_col[l_node]);
+        }
+
+        DeselectClues();
+
+        f_grid = null;
+
+        return l_count;
+    }
+
+    /* Auxiliary of Search
+     * This method selects the matrix row of each clue: i.e. covers the columns that each clue satisfies.
+
+     * Return Value:
+         > A boolean that, if false, indicates that a clue is out of range or conflicts with another clue.
+    */
+    private boolean SelectClues()
+    {
+        f_count_clues = 0;
+
+        for (int cell = 0; cell < f_grid.length; ++cell)
+        {
+            int l_value = f_grid[cell];
+
+            if (l_value == SudokuSolver.S_VALUE_EMPTY_CELL)
+            { continue; }
+
+            if (l_value < 1 || l_value > f_size_grid)
+            { return false; }
+
+            int l_node = f_count_cols + 1 + 4 * (cell * f_size_grid + l_value - 1);
+
+            // If any of the row's columns has already been covered, the clue conflicts with another.
+            for (int i = 0; i < 4; ++i)
+            {
+                int l_col = f_col[l_node + i];
+
+                if (f_right[f_left[l_col]] != l_col)
+                { return false; }
+            }
+
+            for (int i = 0; i < 4; ++i)
+            { Cover(f_col[l_node + i]); }
+
+            f_clues[f_count_clues++] = l_node;
+        }
+
+        return true;
+    }
+
+    /* Auxiliary of Search
+     * This method undoes SelectClues.
+    */
+    private void DeselectClues()
+    {
+        while (f_count_clues > 0)
+        {
+            int l_node = f_clues[--f_count_clues];
+
+            for (int i = 3; i >= 0; --i)
+            { Uncover(f_col[l_node + i]); }
+        }
+
+    }
+
+    /* Auxiliary of Search
+     * Returns the (uncovered) column with the fewest nodes.
+    */
+    private int ChooseColumn()
+    {
+        int l_col_best = f_right[0];
+
+        for (int col = f_right[l_col_best]; col != 0 && f_size_col[l_col_best] > 1; col = f_right[col])
+        {
+            if (f_size_col[col] < f_size_col[l_col_best])
+            { l_col_best = col; }
+        }
+
+        return l_col_best;
+    }
+
+    /* Auxiliary of Search, SelectClues
+     * Removes the given column from the header list, and removes every row that has a node in the column from the
+       other columns.
+    */
+    private void Cover(int a_col)
+    {
+        f_right[f_left[a_col]] = f_right[a_col];
+        f_left[f_right[a_col]] = f_left[a_col];
+
+        for (int i = f_down[a_col]; i != a_col; i = f_down[i])
+        {
+            for (int j = f_right[i]; j != i; j = f_right[j])
+            {
+                f_down[f_up[j]] = f_down[j];
+                f_up[f_down[j]] = f_up[j];
+                --f_size_col[f_col[j]];
+            }
+
+        }
+
+    }
+
+    /* Auxiliary of Search, DeselectClues
+     * Undoes Cover (the links are restored in the reverse order in which they were removed).
+    */
+    private void Uncover(int a_col)
+    {
+        for (int i = f_up[a_col]; i != a_col; i = f_up[i])
+        {
+            for (int j = f_left[i]; j != i; j = f_left[j])
+            {
+                ++f_size_col[f_col[j]];
+                f_down[f_up[j]] = j;
+                f_up[f_down[j]] = j;
+            }
+
+        }
+
+        f_right[f_left[a_col]] = a_col;
+        f_left[f_right[a_col]] = a_col;
+    }
+
+    /* Auxiliary of Search
+     * Writes the placements of the rows chosen at levels 0 to (a_count_levels - 1) to f_grid.
+    */
+    private void WriteSolution(int a_count_levels)
+    {
+        for (int level = 0; level < a_count_levels; ++level)
+        {
+            int l_row_matrix = (f_choice[level] - f_count_cols - 1) / 4;
+
+            f_grid[l_row_matrix / f_size_grid] = l_row_matrix % f_size_grid + 1;
+        }
+
+    }
+
+
+}
@@ -0,0 +1,303 @@
+
+package SudokuPackage;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/* Sudoku Solver (Parallel)
+ * An instance of this class solves sudokus by splitting the search tree into independent subproblems and solving them
+   concurrently on a ForkJoinPool (which balances the load between its threads via work stealing).
+ * Down to a depth of f_depth_split, each subproblem is split on the empty cell with the fewest candidates: a
+   subproblem (with its own copy of the grid) is created for each candidate. Below that depth, a subproblem is solved
+   sequentially by a SudokuSolver (one per pool thread).
+ * As soon as any subproblem finds a solution, a shared flag is set, which cancels every remaining subproblem: those
+   that haven't started return immediately, and those that are being solved stop at their next check (every
+   S_GUESSES_PER_CHECK guesses).
+ * A search can also be cancelled cooperatively from another thread via the flag set by SetCancelFlag (e.g. by
+   SudokuPortfolio, which races this solver against the sequential ones).
+ * An instance can only perform one search at a time.
+
+ * Class Composition:
+     (a). Fields (10)
+         (i). Static Fields (2)
+     (b). Constructors (2)
+     (c). Publics (3)
+         (i). Statics (1)
+         (ii). Mutators (1)
+     (d). Auxiliaries (1)
+     (e). Nested Classes (1)
+         (i). Inner Classes (1)
+*/
+public class SudokuSolverParallel
+{
+
+// (a). Fields (10) ====================================================================================================
+
+    /*
+     * The width and height of each box in the grid (no. of cells).
+    */
+    private final int f_width_box;
+    private final int f_height_box;
+
+    /*
+     * The pool on which the subproblems are solved.
+    */
+    private final ForkJoinPool f_pool;
+
+    /*
+     * The depth (no. of guesses) below which subproblems are no longer split.
+    */
+    private final int f_depth_split;
+
+    /*
+     * The sequential solver of each of the pool's threads (created on first use).
+    */
+    private final ThreadLocal<SudokuSolver> f_solvers;
+
+    /*
+     * A flag that, when true, indicates that a solution has been found by the current search.
+    */
+    private final AtomicBoolean f_found;
+
+    /*
+     * The solution found by the current search.
+    */
+    private volatile int f_solution[];
+
+    /*
+     * A flag that, when set (by another thread), indicates that the current search is to stop; may be null.
+    */
+    private volatile AtomicBoolean f_cancel;
+
+
+// (a)(i). Static Fields (2) -------------------------------------------------------------------------------------------
+
+    // The default value of f_depth_split.
+    private static final int S_DEPTH_SPLIT_DEFAULT = 4;
+
+    // The no. of guesses a sequential solver makes between checks of f_found.
+    private static final long S_GUESSES_PER_CHECK = 1024;
+
+
+
+// (b). Constructors (2) ===============================================================================================
+
+    /*
+     * Constructs a solver that uses the common pool.
+
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public SudokuSolverParallel(int a_width_box, int a_height_box)
+    {
+        this(a_width_box, a_height_box, ForkJoinPool.commonPool(), S_DEPTH_SPLIT_DEFAULT);
+    }
+
+    /*
+     * Parameters:
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+         > a_pool: the pool on which the subproblems are solved.
+         > a_depth_split: the depth (no. of guesses) below which subproblems are no longer split.
+    */
+    public SudokuSolverParallel(int a_width_box, int a_height_box, ForkJoinPool a_pool, int a_depth_split)
+    {
+        if (a_width_box < 1 || a_height_box < 1 || a_width_box * a_height_box > Long.SIZE - 1)
+        { throw new IllegalArgumentException("The dimensions of a box are invalid."); }
+
+        f_width_box = a_width_box;
+        f_height_box = a_height_box;
+        f_pool = a_pool;
+        f_depth_split = a_depth_split;
+
+        f_solvers = ThreadLocal.withInitial(() -> new SudokuSolver(f_width_box, f_height_box));
+        f_found = new AtomicBoolean();
+    }
+
+
+
+// (c). Publics (3) ====================================================================================================
+
+    /*
+     * This method attempts to solve the given sudoku in place.
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n); on success, it contains the solution.
+
+     * Return Value:
+         > A boolean corresponding to whether the sudoku was solved; if false, a_grid is left as it was.
+    */
+    public boolean Solve(int[] a_grid)
+    {
+        int l_size_grid = f_width_box * f_height_box;
+
+        if (a_grid.length != l_size_grid * l_size_grid)
+        { throw new IllegalArgumentException("The grid must contain " + (l_size_grid * l_size_grid) + " cells."); }
+
+        f_found.set(false);
+        f_solution = null;
+
+        f_pool.invoke(new Subproblem(a_grid.clone(), 0));
+
+        if (!f_found.get())
+        { return false; }
+
+        System.arraycopy(f_solution, 0, a_grid, 0, a_grid.length);
+
+        return true;
+    }
+
+
+// (c)(i). Statics (1) -------------------------------------------------------------------------------------------------
+
+    /*
+     * A convenience method that solves the given sudoku in place (using the common pool).
+
+     * Parameters:
+         > a_grid: the sudoku (row-major, length n*n).
+         > a_width_box: the width (no. of cells) of each box.
+         > a_height_box: the height (no. of cells) of each box.
+    */
+    public static boolean Solve(int[] a_grid, int a_width_box, int a_height_box)
+    {
+        return new SudokuSolverParallel(a_width_box, a_height_box).Solve(a_grid);
+    }
+
+
+// (c)(ii). Mutators (1) -----------------------------------------------------------------------------------------------
+
+    /* Mutator of f_cancel
+     * Sets the flag that, once set, cancels the current (and any subsequent) search; null disables cancellation.
+    */
+    public void SetCancelFlag(AtomicBoolean a_cancel)
+    {
+        f_cancel = a_cancel;
+    }
+
+
+
+// (d). Auxiliaries (1) ================================================================================================
+
+    /* Auxiliary of Subproblem
+     * Returns whether the current search is to stop: i.e. a solution has been found, or the search has been cancelled.
+    */
+    private boolean IsStopped()
+    {
+        AtomicBoolean l_cancel = f_cancel;
+
+        return f_found.get() || (l_cancel != null && l_cancel.get());
+    }
+
+
+
+// (e). Nested Classes (1) =============================================================================================
+
+
+// (e)(i). Inner Classes (1) -------------------------------------------------------------------------------------------
+
+    /* Subproblem
+     * An instance of this inner class is a subtree of the search: a copy of the grid with the guesses that lead to it.
+
+     * Composition:
+         (a'). Fields (2)
+         (b'). Constructors (1)
+         (c'). Protected Methods (1)
+    */
+    private class Subproblem
+        extends RecursiveAction
+    {
+
+    // (a'). Fields (2) ================================================================================================
+
+        /*
+         * The subproblem's grid (owned by the subproblem).
+        */
+        private final int f_grid[];
+
+        /*
+         * The no. of guesses that lead to this subproblem.
+        */
+        private final int f_depth;
+
+        private static final long serialVersionUID = 1L;
+
+
+    // (b'). Constructors (1) ==========================================================================================
+
+        public Subproblem(int[] a_grid, int a_depth)
+        {
+            f_grid = a_grid;
+            f_depth = a_depth;
+        }
+
+
+    // (c'). Protected Methods (1) =====================================================================================
+
+        /* Implementation of RecursiveAction.compute()
+         * Either splits the subproblem (and solves the parts concurrently) or solves it sequentially.
+        */
+        @Override
+        protected void compute()
+        {
+            if (IsStopped())
+            { return; }
+
+            SudokuSolver l_solver = f_solvers.get();
+
+            // Propagate constraints; if there's a contradiction, there's no solution in this subtree.
+            if (!l_solver.Start(f_grid))
+            { return; }
+
+            if (f_depth < f_depth_split && l_solver.GetCountEmpty() > 0)
+            {
+                // Split on the cell with the fewest candidates (the propagated values are in f_grid).
+                int l_index = new SudokuCellSelector.MinimumRemainingValues().SelectCell(l_solver);
+                long l_candidates = l_solver.GetCandidates(l_index);
+
+                List<Subproblem> l_parts = new ArrayList<Subproblem>(Long.bitCount(l_candidates));
+
+                while (l_candidates != 0)
+                {
+                    long l_bit = Long.lowestOneBit(l_candidates);
+                    l_candidates ^= l_bit;
+
+                    int[] l_grid = f_grid.clone();
+                    l_grid[l_index] = Long.numberOfTrailingZeros(l_bit) + 1;
+
+                    l_parts.add(new Subproblem(l_grid, f_depth + 1));
+                }
+
+                invokeAll(l_parts);
+                return;
+            }
+
+            while (!IsStopped())
+            {
+                SudokuSolver.SearchStatus l_status = l_solver.Search(S_GUESSES_PER_CHECK);
+
+                if (l_status == SudokuSolver.SearchStatus.Exhausted)
+                { return; }
+
+                if (l_status == SudokuSolver.SearchStatus.Solved)
+                {
+                    // Only the first solution is kept.
+                    if (f_found.compareAndSet(false, true))
+                    { f_solution = f_grid; }
+
+                    return;
+                }
+
+            }
+
+        }
+
+    } // private class Subproblem
+
+
+}
@@ -0,0 +1,244 @@
+package SudokuPackage;
+
+
+/* Sudoku Trace
+ * An instance of this class is a record of the steps of a (recursive-backtracking) search, which allows the search to
+   run at full speed and be visualised afterwards, at any speed, by replaying its steps (see SudokuBoard.Replay).
+ * Each step is an event, which is packed into an int: its kind (bits 24-25), the value it concerns (bits 16-23), and
+   the index of the cell it concerns (bits 0-15). The kinds of event are:
+     > Place: a value is placed in a cell, and is consistent with the cell's peers.
+     > Reject: a value is placed in a cell, but is inconsistent with the cell's peers.
+     > Retreat: the search returns to a cell, as its value led to a dead end.
+     > Clear: the search abandons a cell (every value led to a dead end), emptying it.
+ * The events are stored in chunks of S_SIZE_CHUNK ints, which are allocated as the trace grows, so that recording an
+   event neither copies the trace nor (bar one chunk per S_SIZE_CHUNK events) allocates. A trace holds at most
+   S_MAX_EVENTS events: beyond that, it's truncated (see Add).
+ * Every S_INTERVAL_CHECKPOINT events, a snapshot of the values of the cells is taken, so that the values after any
+   no. of events can be found (see GetGrid) by restoring the latest snapshot before it and applying at most
+   S_INTERVAL_CHECKPOINT - 1 events, rather than by applying every event from the start.
+
+ * Class Composition:
+     (a). Fields (5)
+         (i). Static Fields (8)
+     (b). Constructors (1)
+     (c). Publics (9)
+         (i). Statics (3)
+         (ii). Accessors (2)
+     (d). Auxiliaries (1)
+*/
+public class SudokuTrace
+{
+
+// (a). Fields (5) =====================================================================================================
+
+    /*
+     * The values of the cells after the events so far (row-major).
+    */
+    private final byte f_grid[];
+
+    /*
+     * The values of the cells after every S_INTERVAL_CHECKPOINT-th event (the first is before any event).
+    */
+    private final byte f_checkpoints[][];
+
+    /*
+     * The chunks of events (those that haven't been reached yet are null).
+    */
+    private final int f_chunks[][];
+
+    /*
+     * The no. of events.
+    */
+    private int f_count;
+
+    /*
+     * A flag that, when true, indicates that the trace has reached its capacity, and so doesn't hold every step of the
+       search.
+    */
+    private boolean f_truncated;
+
+
+// (a)(i). Static Fields (8) -------------------------------------------------------------------------------------------
+
+    // The kinds of event.
+    public static final int S_KIND_PLACE = 0;
+    public static final int S_KIND_REJECT = 1;
+    public static final int S_KIND_RETREAT = 2;
+    public static final int S_KIND_CLEAR = 3;
+
+    // The base-2 logarithm of the no. of events per chunk.
+    private static final int S_SIZE_CHUNK_LOG = 16;
+
+    // The no. of events per chunk.
+    private static final int S_SIZE_CHUNK = 1 << S_SIZE_CHUNK_LOG;
+
+    // The maximum no. of events of a trace (64MB of events).
+    private static final int S_MAX_EVENTS = 1 << 24;
+
+    // The no. of events between checkpoints (i.e. the maximum no. of events GetGrid applies).
+    private static final int S_INTERVAL_CHECKPOINT = 1 << 12;
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+     * Parameters:
+         > a_grid_start: the values of the cells before the search (row-major).
+    */
+    public SudokuTrace(int[] a_grid_start)
+    {
+        f_grid = new byte[a_grid_start.length];
+
+        for (int cell = 0; cell < a_grid_start.length; ++cell)
+        { f_grid[cell] = (byte)a_grid_start[cell]; }
+
+        f_chunks = new int[S_MAX_EVENTS / S_SIZE_CHUNK][];
+        f_checkpoints = new byte[S_MAX_EVENTS / S_INTERVAL_CHECKPOINT + 1][];
+        f_checkpoints[0] = f_grid.clone();
+        f_count = 0;
+        f_truncated = false;
+    }
+
+
+
+// (c). Publics (9) ====================================================================================================
+
+    /*
+     * This method appends an event to the trace, unless it's full (in which case it's marked as truncated).
+
+     * Parameters:
+         > a_kind: the kind of event (e.g. S_KIND_PLACE).
+         > a_cell: the index of the cell the event concerns.
+         > a_value: the value the event concerns (if any).
+
+     * Return Value:
+         > A boolean that, when false, indicates that the trace is full, and so the search should stop.
+    */
+    public boolean Add(int a_kind, int a_cell, int a_value)
+    {
+        if (f_count == S_MAX_EVENTS)
+        {
+            f_truncated = true;
+            return false;
+        }
+
+        int l_chunk = f_count >>> S_SIZE_CHUNK_LOG;
+
+        if (f_chunks[l_chunk] == null)
+        { f_chunks[l_chunk] = new int[S_SIZE_CHUNK]; }
+
+        int l_event = (a_kind << 24) | (a_value << 16) | a_cell;
+
+        f_chunks[l_chunk][f_count & (S_SIZE_CHUNK - 1)] = l_event;
+
+        ++f_count;
+
+        Apply(l_event, f_grid);
+
+        if (f_count % S_INTERVAL_CHECKPOINT == 0)
+        { f_checkpoints[f_count / S_INTERVAL_CHECKPOINT] = f_grid.clone(); }
+
+        return true;
+    }
+
+    /*
+     * Returns the event at the given index (0 <= a_index < GetCount()).
+    */
+    public int Get(int a_index)
+    {
+        return f_chunks[a_index >>> S_SIZE_CHUNK_LOG][a_index & (S_SIZE_CHUNK - 1)];
+    }
+
+    /*
+     * This method copies the values of the cells after the first a_index events into the given (row-major) array: the
+       latest checkpoint at or before a_index is restored, and the events between it and a_index are applied.
+
+     * Parameters:
+         > a_index: the no. of events (0 <= a_index <= GetCount()); 0 gives the values before the search.
+         > a_grid: the array into which the values are copied.
+    */
+    public void GetGrid(int a_index, int[] a_grid)
+    {
+        if (a_index < 0 || a_index > f_count)
+        { throw new IndexOutOfBoundsException("There's no step " + a_index + " in a trace of " + f_count + "."); }
+
+        int l_checkpoint = a_index / S_INTERVAL_CHECKPOINT;
+
+        byte[] l_grid = f_checkpoints[l_checkpoint].clone();
+
+        for (int i = l_checkpoint * S_INTERVAL_CHECKPOINT; i < a_index; ++i)
+        { Apply(Get(i), l_grid); }
+
+        for (int cell = 0; cell < l_grid.length; ++cell)
+        { a_grid[cell] = l_grid[cell]; }
+    }
+
+    /*
+     * Returns whether the trace reached its capacity: i.e. whether the search was stopped before it finished.
+    */
+    public boolean IsTruncated()
+    {
+        return f_truncated;
+    }
+
+
+// (c)(i). Statics (3) -------------------------------------------------------------------------------------------------
+
+    /*
+     * The following methods return the components of an event.
+    */
+
+    public static int KindOf(int a_event)
+    {
+        return a_event >>> 24;
+    }
+
+    public static int ValueOf(int a_event)
+    {
+        return (a_event >>> 16) & 0xFF;
+    }
+
+    public static int CellOf(int a_event)
+    {
+        return a_event & 0xFFFF;
+    }
+
+
+// (c)(ii). Accessors (2) ----------------------------------------------------------------------------------------------
+
+    public int GetCount()
+    {
+        return f_count;
+    }
+
+    public int GetCountCells()
+    {
+        return f_grid.length;
+    }
+
+
+
+// (d). Auxiliaries (1) ================================================================================================
+
+    /* Auxiliary of Add, GetGrid
+     * This method applies the given event to the given values of the cells: a placed (or rejected) value is put in its
+       cell, and a cleared cell is emptied.
+    */
+    private static void Apply(int a_event, byte[] a_grid)
+    {
+        int l_kind = KindOf(a_event);
+
+        if (l_kind == S_KIND_PLACE || l_kind == S_KIND_REJECT)
+        {
+            a_grid[CellOf(a_event)] = (byte)ValueOf(a_event);
+        }
+        else if (l_kind == S_KIND_CLEAR)
+        {
+            a_grid[CellOf(a_event)] = 0;
+        }
+
+    }
+
+
+}
@@ -0,0 +1,213 @@
+package Utils;
+
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+import java.awt.image.BufferedImage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/*
+* An object of this class is a cache of pre-rendered text (glyphs) of a font, so that drawing text becomes a copy of an
+  image (a 'blit'), rather than a layout and rasterisation of its characters.
+* Each text is rendered once per colour, on a transparent background, into an image whose height is the font's ascent
+  plus its descent (i.e. its top is at the ascent above the baseline).
+* As text is typically drawn at only a few sizes, there's one atlas per font, which is shared (see Of); the no. of
+  texts cached per atlas is bounded by s_max_glyphs (beyond which a text is rendered, but not cached), and the no. of
+  atlases shared is bounded by s_max_atlases (beyond which the least-recently used one is no longer shared).
+* The methods are synchronised, as text may be drawn by threads other than the event-dispatching thread (e.g. into an
+  off-screen buffer).
+
+* Class Composition:
+    (a). Fields (4)
+        (i). Statics (3)
+    (b). Constructors (1)
+    (c). Publics (4)
+        (i). Statics (1)
+        (ii). Accessors (1)
+    (d). Auxiliaries (1)
+*/
+public class GlyphAtlas
+{
+
+// (a). Fields (4) =====================================================================================================
+
+    /*
+    * The font of the text.
+    */
+    private final Font f_font;
+
+    /*
+    * The metrics of f_font.
+    */
+    private final FontMetrics f_metrics;
+
+    /*
+    * The rendered texts of each colour.
+    */
+    private final HashMap<Color, HashMap<String, BufferedImage>> f_glyphs;
+
+    /*
+    * The no. of rendered texts (of all colours).
+    */
+    private int f_count_glyphs;
+
+
+// (a)(i). Statics (3) -------------------------------------------------------------------------------------------------
+
+    /*
+    * The maximum no. of atlases held by s_atlases.
+    */
+    private static final int s_max_atlases = 64;
+    
+    /*
+    * The atlas of each font (see Of), the least-recently used of which is evicted once there are more than 
+      s_max_atlases.
+    */
+    private static final LinkedHashMap<Font, GlyphAtlas> s_atlases = 
+        new LinkedHashMap<Font, GlyphAtlas>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Font, GlyphAtlas> a_eldest)
+        {
+            return size() > s_max_atlases;
+        }
+    };
+
+    /*
+    * The maximum no. of rendered texts (of all colours) an atlas holds.
+    */
+    private static final int s_max_glyphs = 4096;
+
+
+
+// (b). Constructors (1) ===============================================================================================
+
+    /*
+
+    * Parameters:
+        > a_font: the font of the text.
+    */
+    private GlyphAtlas(Font a_font)
+    {
+        f_font = a_font;
+
+        // The metrics are taken from a scratch image, as the atlas isn't bound to a component.
+        Graphics2D l_graphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        f_metrics = l_graphics.getFontMetrics(a_font);
+        l_graphics.dispose();
+
+        f_glyphs = new HashMap<Color, HashMap<String, BufferedImage>>();
+        f_count_glyphs = 0;
+    }
+
+
+
+// (c). Publics (4) ====================================================================================================
+
+    /*
+    * Returns the image of the given text in the given colour (which is rendered on first use).
+    */
+    public synchronized BufferedImage Get(String a_text, Color a_colour)
+    {
+        HashMap<String, BufferedImage> l_glyphs = f_glyphs.get(a_colour);
+
+        if (l_glyphs == null)
+        {
+            l_glyphs = new HashMap<String, BufferedImage>();
+            f_glyphs.put(a_colour, l_glyphs);
+        }
+
+        BufferedImage l_glyph = l_glyphs.get(a_text);
+
+        if (l_glyph == null)
+        {
+            l_glyph = Render(a_text, a_colour);
+
+            if (f_count_glyphs < s_max_glyphs)
+            {
+                l_glyphs.put(a_text, l_glyph);
+                ++f_count_glyphs;
+            }
+
+        }
+
+        return l_glyph;
+    }
+
+    /*
+    * Returns the width (pixels) of the given text.
+    */
+    public int GetWidth(String a_text)
+    {
+        return f_metrics.stringWidth(a_text);
+    }
+
+
+// (c)(i). Statics (1) -------------------------------------------------------------------------------------------------
+
+    /*
+    * Returns the atlas of the given font (which is created on first use, and shared thereafter).
+    */
+    public static GlyphAtlas Of(Font a_font)
+    {
+        synchronized (s_atlases)
+        {
+            GlyphAtlas l_atlas = s_atlases.get(a_font);
+
+            if (l_atlas == null)
+            {
+                l_atlas = new GlyphAtlas(a_font);
+                s_atlases.put(a_font, l_atlas);
+            }
+
+            return l_atlas;
+        }
+
+    }
+
+
+// (c)(ii). Accessors (1) ----------------------------------------------------------------------------------------------
+
+    /* Accessor of the font's ascent
+    */
+    public int GetAscent()
+    {
+        return f_metrics.getAscent();
+    }
+
+
+
+// (d). Auxiliaries (1) ================================================================================================
+
+    /* Auxiliary of Get
+    * Returns the given text rendered in the given colour on a transparent background.
+    */
+    private BufferedImage Render(String a_text, Color a_colour)
+    {
+        int l_width = Math.max(1, f_metrics.stringWidth(a_text));
+        int l_height = Math.max(1, f_metrics.getAscent() + f_metrics.getDescent());
+
+        BufferedImage l_glyph = new BufferedImage(l_width, l_height, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D l_graphics = l_glyph.createGraphics();
+        l_graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        l_graphics.setFont(f_font);
+        l_graphics.setColor(a_colour);
+        l_graphics.drawString(a_text, 0, f_metrics.getAscent());
+        l_graphics.dispose();
+
+        return l_glyph;
+    }
+
+
+}
@@ -9,19 +9,26 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 
 /*
 * Objects of this class can be used to display text onto the screen.
 * The size of the text is the largest it can be while fitting within the bounds of the label (incl. inner padding).
+* Fitting the font is costly (it's found by trying sizes from the largest down), so the fitted font is cached per label
+  size and text (see FitFont), and the text itself is drawn from a GlyphAtlas: i.e. a repaint is a fill plus a copy of 
+  a pre-rendered image.
  
 * Class Composition:
     (a). Enums (1)
-    (b). Fields (6)
-        (i). Statics (4)
+    (b). Fields (11)
+        (i). Statics (6)
     (c). Constructors (2)
     (d). Publics (6)
         (i). Accessors (1)
         (ii). Mutators (3)
+    (e). Auxiliaries (1)
 */
 public class Label
     extends Canvas 
@@ -40,7 +47,7 @@ public class Label
     
     
     
-// (b). Fields (2) =====================================================================================================
+// (b). Fields (5) =====================================================================================================
     
     /*
     * The text that is displayed. 
@@ -52,8 +59,15 @@ public class Label
     */
     private Alignment f_align;
     
+    /*
+    * The font that was last fitted to the label, and the text and bounds (see FitFont) it was fitted for.
+    */
+    private Font f_font;
+    private String f_text_font;
+    private long f_bounds_font;
     
-// (b)(i). Statics (4) -------------------------------------------------------------------------------------------------
+    
+// (b)(i). Statics (6) -------------------------------------------------------------------------------------------------
     
     /*
     * The size of the padding above and below the text/value, as a proportion of the label's width.
@@ -71,6 +85,27 @@ public class Label
     // The default text colour.
     private static final Color s_colour_text_default = Color.BLACK;
     
+    /*
+    * The maximum no. of fonts held by s_fonts.
+    */
+    private static final int s_max_fonts = 1024;
+    
+    /*
+    * The fitted fonts, keyed by the maximum width and height of the text and the text itself (see FitFont), which are 
+      shared by every label (e.g. the many labels of a grid, which are all the same size). The least-recently used font
+      is evicted once there are more than s_max_fonts.
+    */
+    private static final LinkedHashMap<String, Font> s_fonts = new LinkedHashMap<String, Font>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Font> a_eldest)
+        {
+            return size() > s_max_fonts;
+        }
+    };
+    
     private static final long serialVersionUID = 1L;
     
     
@@ -151,65 +186,47 @@ public class Label
         g.setColor(getBackground());
         g.fillRect(0, 0, getWidth(), getHeight());
         
-        if (f_text == "")
+        if (f_text.isEmpty())
         { return; }
         
+        Dimension l_size = super.getPreferredSize();
+        
         // The horizontal and vertical padding.
-        int l_padding_horizontal = (int)( super.getPreferredSize().width * s_padding_proportion_horizontal );
-        int l_padding_vertical = (int)( super.getPreferredSize().height * s_padding_proportion_vertical );
+        int l_padding_horizontal = (int)( l_size.width * s_padding_proportion_horizontal );
+        int l_padding_vertical = (int)( l_size.height * s_padding_proportion_vertical );
         
         // The text's maximum width.
-        int l_width_max = (int)( super.getPreferredSize().width - 2 * l_padding_horizontal );
+        int l_width_max = (int)( l_size.width - 2 * l_padding_horizontal );
         
         // The font's maximum height.
-        int l_height_max = (int)( super.getPreferredSize().height - 2 * l_padding_vertical );
-
-        // Print the text upon the canvas at the appropriate font.
-        for (int height = l_height_max; height > 1; --height)
+        int l_height_max = (int)( l_size.height - 2 * l_padding_vertical );
+        
+        GlyphAtlas l_atlas = GlyphAtlas.Of(FitFont(l_width_max, l_height_max));
+        
+        // The highest height of a character of the font.
+        int l_height_text = l_atlas.GetAscent();
+        
+        // The width of the text under the font.
+        int l_width_text = l_atlas.GetWidth(f_text);
+        
+        // X and Y coordinate of the text.
+        int l_x = 0;
+        int l_y = 0;
+        
+        // Set the coordinates.
+        if (f_align == Alignment.Left)
         {
-            g.setFont(new Font("Arial", Font.PLAIN, height));         
-            
-            FontMetrics l_font_metrics = g.getFontMetrics();
-            
-            // The highest height of a character of the current font.
-            int l_height_text = l_font_metrics.getAscent();
-            
-            // Check if the height is too high.
-            if (l_height_text > l_height_max)
-            { continue; }
-            
-            // The width of l_text_full under the current font.
-            int l_width_text = l_font_metrics.stringWidth(f_text);
-            
-            // Check if the width is too wide.
-            if (l_width_text > l_width_max)
-            { continue; }
-            
-            // X and Y coordinate of the text.
-            int l_x = 0;
-            int l_y = 0;
-            
-            // Set the coordinates.
-            if (f_align == Alignment.Left)
-            {
-                l_x = l_padding_horizontal;
-                l_y = l_padding_vertical + l_height_text;
-            }
-            else if (f_align == Alignment.Centre)
-            {
-                l_x = l_padding_horizontal + (l_width_max - l_width_text) / 2;
-                l_y = l_padding_vertical + l_height_text;
-            }
-            
-            // Set the colour for l_text_string.
-            g.setColor(getForeground());
-            
-            // Draw l_text_string.
-            g.drawString(f_text, l_x, l_y);
-            
-            break;
+            l_x = l_padding_horizontal;
+            l_y = l_padding_vertical + l_height_text;
         }
-
+        else if (f_align == Alignment.Centre)
+        {
+            l_x = l_padding_horizontal + (l_width_max - l_width_text) / 2;
+            l_y = l_padding_vertical + l_height_text;
+        }
+        
+        // Draw the text (whose image's top is at the font's ascent above the baseline).
+        g.drawImage(l_atlas.Get(f_text, getForeground()), l_x, l_y - l_height_text, null);
     }
     
     
@@ -252,5 +269,68 @@ public class Label
         repaint();
     }
     
+    
+    
+// (e). Auxiliaries (1) ================================================================================================
+    
+    /* Auxiliary of update
+    * Returns the largest font at which f_text fits within the given bounds.
+    * The font is cached per bounds and text: first by the label (so that a repaint of the same text doesn't even look 
+      up the cache), then by s_fonts (so that labels of the same size share it). As the font is fitted to the text 
+      itself, a cached font is always the largest that fits.
+    
+    * Parameters:
+        > a_width_max: the text's maximum width.
+        > a_height_max: the font's maximum height.
+    */
+    private Font FitFont(int a_width_max, int a_height_max)
+    {
+        long l_bounds = ((long)a_width_max << 32) | a_height_max;
+        
+        if (f_font != null && l_bounds == f_bounds_font && f_text.equals(f_text_font))
+        { return f_font; }
+        
+        String l_key = a_width_max + "x" + a_height_max + ":" + f_text;
+        
+        Font l_font;
+        
+        synchronized (s_fonts)
+        {
+            l_font = s_fonts.get(l_key);
+        }
+        
+        if (l_font == null)
+        {
+            l_font = new Font("Arial", Font.PLAIN, 1);
+            
+            // Try the sizes from the largest down.
+            for (int height = a_height_max; height > 1; --height)
+            {
+                Font l_font_curr = new Font("Arial", Font.PLAIN, height);
+                
+                FontMetrics l_font_metrics = super.getFontMetrics(l_font_curr);
+                
+                // Check if the height is too high, or the width too wide.
+                if (l_font_metrics.getAscent() > a_height_max || l_font_metrics.stringWidth(f_text) > a_width_max)
+                { continue; }
+                
+                l_font = l_font_curr;
+                break;
+            }
+            
+            synchronized (s_fonts)
+            {
+                s_fonts.put(l_key, l_font);
+            }
+            
+        }
+        
+        f_font = l_font;
+        f_text_font = f_text;
+        f_bounds_font = l_bounds;
+        
+        return l_font;
+    }
+    
    
 }